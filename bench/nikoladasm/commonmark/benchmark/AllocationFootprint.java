@@ -0,0 +1,80 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import nikoladasm.commonmark.HtmlRenderer;
+import nikoladasm.commonmark.Parser;
+
+/*
+ * Bytes allocated per input byte while parsing and rendering all
+ * documents of testdata/input.zip. Not a JMH benchmark: it reads the
+ * allocation counter of the current thread, run it with
+ * "ant allocation-footprint".
+ */
+public class AllocationFootprint {
+
+	private static final int ROUNDS = 5;
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+		(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private static long allocated() {
+		return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static long parse(Parser parser, List<String> documents) {
+		long before = allocated();
+		for (String document : documents)
+			parser.parse(document);
+		return allocated() - before;
+	}
+
+	private static long render(Parser parser, HtmlRenderer renderer, List<String> documents) {
+		long before = allocated();
+		for (String document : documents)
+			renderer.render(parser.parse(document));
+		return allocated() - before;
+	}
+
+	public static void main(String[] args) {
+		List<String> documents = Corpus.documents();
+		Parser parser = Parser.getInstance();
+		HtmlRenderer renderer = new HtmlRenderer();
+		long bytes = 0;
+		for (String document : documents)
+			bytes += document.getBytes(UTF_8).length;
+		long parsed = Long.MAX_VALUE;
+		long rendered = Long.MAX_VALUE;
+		for (int i = 0; i < ROUNDS; i++) {
+			parsed = Math.min(parsed, parse(parser, documents));
+			rendered = Math.min(rendered, render(parser, renderer, documents));
+		}
+		System.out.printf("documents:          %d%n", documents.size());
+		System.out.printf("input bytes:        %d%n", bytes);
+		System.out.printf("parse bytes:        %d%n", parsed);
+		System.out.printf("parse per input:    %.2f%n", (double) parsed / bytes);
+		System.out.printf("render bytes:       %d%n", rendered);
+		System.out.printf("render per input:   %.2f%n", (double) rendered / bytes);
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import nikoladasm.commonmark.Parser;
+import nikoladasm.commonmark.nodes.Node;
+
+/*
+ * Retained heap of the ASTs of all documents of testdata/input.zip.
+ * Not a JMH benchmark: the trees are kept reachable and the heap is
+ * measured after full collections, so run it in a quiet JVM with
+ * "ant ast-footprint".
+ */
+public class AstFootprint {
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+		}
+		return used;
+	}
+
+	private static long countNodes(Node root) {
+		long count = 0;
+		Deque<Node> stack = new ArrayDeque<>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			Node node = stack.pop();
+			count++;
+			for (Node child : node.childs())
+				stack.push(child);
+		}
+		return count;
+	}
+
+	public static void main(String[] args) {
+		List<String> documents = Corpus.documents();
+		Parser parser = Parser.getInstance();
+		long bytes = 0;
+		for (String document : documents) {
+			parser.parse(document);
+			bytes += document.getBytes(UTF_8).length;
+		}
+		List<Node> trees = new ArrayList<>(documents.size());
+		long before = usedMemory();
+		for (String document : documents)
+			trees.add(parser.parse(document));
+		long after = usedMemory();
+		long nodes = 0;
+		for (Node tree : trees)
+			nodes += countNodes(tree);
+		long retained = after - before;
+		System.out.printf("documents:          %d%n", trees.size());
+		System.out.printf("input bytes:        %d%n", bytes);
+		System.out.printf("nodes:              %d%n", nodes);
+		System.out.printf("retained bytes:     %d%n", retained);
+		System.out.printf("bytes per node:     %.1f%n", (double) retained / nodes);
+		System.out.printf("bytes per input:    %.2f%n", (double) retained / bytes);
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nikoladasm.commonmark.HtmlRenderer;
+import nikoladasm.commonmark.Parser;
+import nikoladasm.commonmark.nodes.Node;
+
+/*
+ * Renders the corpus to a channel, either by encoding the page String
+ * or through a reused direct buffer. Run with -prof gc to compare the
+ * allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChannelOutputBenchmark {
+
+	/* Counts and drops the bytes, as a socket would take them. */
+	private static class NullChannel implements WritableByteChannel {
+		long written;
+		
+		@Override
+		public int write(ByteBuffer src) {
+			int n = src.remaining();
+			src.position(src.limit());
+			written += n;
+			return n;
+		}
+		
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+		
+		@Override
+		public void close() {}
+	}
+	
+	@Param({"8192"})
+	public int bufferSize;
+	
+	private HtmlRenderer renderer;
+	private List<Node> documents;
+	private NullChannel channel;
+	private ByteBuffer buffer;
+
+	@Setup
+	public void setup() {
+		renderer = new HtmlRenderer();
+		documents = new ArrayList<>();
+		Parser parser = Parser.getInstance();
+		for (String document : Corpus.documents()) {
+			Node ast = parser.parse(document);
+			renderer.render(ast);
+			documents.add(ast);
+		}
+		channel = new NullChannel();
+		buffer = ByteBuffer.allocateDirect(bufferSize);
+	}
+
+	@Benchmark
+	public void renderGetBytes(Blackhole bh) throws IOException {
+		for (Node document : documents)
+			channel.write(ByteBuffer.wrap(renderer.render(document).getBytes(UTF_8)));
+		bh.consume(channel.written);
+	}
+	
+	@Benchmark
+	public void renderChannel(Blackhole bh) {
+		for (Node document : documents)
+			renderer.render(document, channel, buffer);
+		bh.consume(channel.written);
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import nikoladasm.commonmark.HtmlRenderer;
+import nikoladasm.commonmark.Parser;
+
+/*
+ * Short chat messages rendered through the full pipeline and through
+ * HtmlRenderer.render(String, Parser), which writes plain prose out
+ * directly. The bytes variants take and give UTF-8, directly or by
+ * decoding and encoding around the String one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatMessageBenchmark {
+
+	private static final String PROSE =
+		"Sure, that works for me. Let's meet at the usual place around noon, " +
+		"I'll bring the notes from yesterday so we can go over the numbers " +
+		"again before the call.\nSee you there! ";
+
+	@Param({"20", "50", "200"})
+	public int length;
+
+	@Param({"plain", "markdown"})
+	public String kind;
+
+	private Parser parser;
+	private HtmlRenderer renderer;
+	private String message;
+	private byte[] bytes;
+
+	@Setup
+	public void setup() {
+		parser = Parser.getInstance();
+		renderer = new HtmlRenderer();
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < length)
+			sb.append(PROSE);
+		message = sb.substring(0, length);
+		if (kind.equals("markdown"))
+			message = "*" + message.substring(2) + "*";
+		bytes = message.getBytes(UTF_8);
+	}
+
+	@Benchmark
+	public String fullPipeline() {
+		return renderer.render(parser.parse(new StringReader(message)));
+	}
+
+	@Benchmark
+	public String parseAndRender() {
+		return renderer.render(parser.parse(message));
+	}
+
+	@Benchmark
+	public String renderString() {
+		return renderer.render(message, parser);
+	}
+
+	@Benchmark
+	public byte[] renderBytes() {
+		return renderer.render(bytes, parser);
+	}
+
+	@Benchmark
+	public byte[] renderDecodedBytes() {
+		return renderer.render(new String(bytes, UTF_8), parser).getBytes(UTF_8);
+	}
+}
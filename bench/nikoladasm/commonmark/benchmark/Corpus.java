@@ -0,0 +1,72 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class Corpus {
+
+	public static final String INPUT_FILE = "testdata/input.zip";
+
+	private static List<String> documents;
+
+	private static String inputStreamToString(InputStream stream) throws IOException {
+		final char[] buffer = new char[2048];
+		StringBuilder sb = new StringBuilder();
+		Reader reader = new InputStreamReader(stream, UTF_8);
+		int rsz;
+		while ((rsz = reader.read(buffer, 0, buffer.length)) >= 0)
+			sb.append(buffer, 0, rsz);
+		return sb.toString();
+	}
+
+	public static synchronized List<String> documents() {
+		if (documents != null) return documents;
+		List<String> result = new ArrayList<>();
+		try (ZipFile archive = new ZipFile(INPUT_FILE)) {
+			Enumeration<? extends ZipEntry> entries = archive.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				if (entry.isDirectory()) continue;
+				result.add(inputStreamToString(archive.getInputStream(entry)));
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Can't read benchmark data", e);
+		}
+		documents = result;
+		return documents;
+	}
+
+	public static long length(List<String> documents) {
+		long length = 0;
+		for (String document : documents)
+			length += document.length();
+		return length;
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nikoladasm.commonmark.CharReaderImpl;
+import nikoladasm.commonmark.HtmlRenderer;
+import nikoladasm.commonmark.InlineParser;
+import nikoladasm.commonmark.InlineParserImpl;
+import nikoladasm.commonmark.Parser;
+import nikoladasm.commonmark.nodes.BaseBlockNode;
+import nikoladasm.commonmark.nodes.BlockNode;
+import nikoladasm.commonmark.nodes.Node;
+
+/*
+ * One operation is one pass over all documents of testdata/input.zip.
+ * The megabytes and docs counters give MB/s and docs/s of the input;
+ * run with -prof gc (see the corpus-benchmark ant target) to get
+ * gc.alloc.rate.norm, the bytes allocated per pass.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorpusBenchmark {
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Counters {
+		public double megabytes;
+		public long docs;
+
+		@Setup(Level.Iteration)
+		public void clean() {
+			megabytes = 0;
+			docs = 0;
+		}
+	}
+
+	private static class RecordingInlineParser extends DelegatingInlineParser {
+		private final List<String> contents;
+
+		private RecordingInlineParser(InlineParser ip, List<String> contents) {
+			super(ip);
+			this.contents = contents;
+		}
+
+		@Override
+		public void parseInline(BlockNode root) {
+			contents.add(root.stringContent());
+		}
+	}
+
+	private List<String> documents;
+	private double megabytes;
+	private Parser blockParser;
+	private InlineParser ip;
+	private List<String> contents;
+	private double contentsMegabytes;
+	private List<Node> asts;
+	private Parser parser;
+	private HtmlRenderer renderer;
+
+	@Setup
+	public void setup() {
+		documents = Corpus.documents();
+		for (String document : documents)
+			megabytes += document.getBytes(UTF_8).length / (1024.0 * 1024.0);
+		contents = new ArrayList<>();
+		blockParser = new Parser(new RecordingInlineParser(
+			new InlineParserImpl(new CharReaderImpl()), contents));
+		for (String document : documents)
+			blockParser.parse(document);
+		for (String content : contents)
+			contentsMegabytes += content.getBytes(UTF_8).length / (1024.0 * 1024.0);
+		contents = new ArrayList<>(contents);
+		ip = new InlineParserImpl(new CharReaderImpl());
+		parser = Parser.getInstance();
+		renderer = new HtmlRenderer();
+		asts = new ArrayList<>();
+		for (String document : documents) {
+			Node ast = parser.parse(document);
+			renderer.render(ast);
+			asts.add(ast);
+		}
+	}
+
+	@Benchmark
+	public void blockParse(Counters counters, Blackhole bh) {
+		for (String document : documents)
+			bh.consume(blockParser.parse(document));
+		counters.megabytes += megabytes;
+		counters.docs += documents.size();
+	}
+
+	@Benchmark
+	public void inlineParse(Counters counters, Blackhole bh) {
+		for (String content : contents) {
+			BlockNode node = new BaseBlockNode(0, 0) {};
+			node.stringContent(content);
+			ip.parseInline(node);
+			bh.consume(node);
+		}
+		counters.megabytes += contentsMegabytes;
+		counters.docs += documents.size();
+	}
+
+	@Benchmark
+	public void render(Counters counters, Blackhole bh) {
+		for (Node ast : asts)
+			bh.consume(renderer.render(ast));
+		counters.megabytes += megabytes;
+		counters.docs += documents.size();
+	}
+
+	@Benchmark
+	public void endToEnd(Counters counters, Blackhole bh) {
+		for (String document : documents)
+			bh.consume(renderer.render(parser.parse(document)));
+		counters.megabytes += megabytes;
+		counters.docs += documents.size();
+	}
+
+	@Benchmark
+	public void endToEndStreaming(Counters counters, Blackhole bh) {
+		StringBuilder sb = new StringBuilder();
+		for (String document : documents) {
+			sb.setLength(0);
+			parser.parse(document, renderer.sink(sb));
+			bh.consume(sb.length());
+		}
+		counters.megabytes += megabytes;
+		counters.docs += documents.size();
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import nikoladasm.commonmark.InlineParser;
+import nikoladasm.commonmark.Link;
+import nikoladasm.commonmark.nodes.BlockNode;
+
+public class DelegatingInlineParser implements InlineParser {
+	protected final InlineParser ip;
+
+	public DelegatingInlineParser(InlineParser ip) {
+		this.ip = ip;
+	}
+
+	@Override
+	public void whitespaseCharFunc(Function<Character,Boolean> func) {
+		ip.whitespaseCharFunc(func);
+	}
+
+	@Override
+	public Map<String,Link> refmap() {
+		return ip.refmap();
+	}
+
+	@Override
+	public void refmap(Map<String,Link> refmap) {
+		ip.refmap(refmap);
+	}
+
+	@Override
+	public void resetStringBuilders() {
+		ip.resetStringBuilders();
+	}
+
+	@Override
+	public void reset() {
+		ip.reset();
+	}
+
+	@Override
+	public boolean isWhitespase(char c) {
+		return ip.isWhitespase(c);
+	}
+
+	@Override
+	public String unescapeString(String str) {
+		return ip.unescapeString(str);
+	}
+
+	@Override
+	public void parseInline(BlockNode root) {
+		ip.parseInline(root);
+	}
+
+	@Override
+	public int parseReferences(String input) {
+		return ip.parseReferences(input);
+	}
+
+	@Override
+	public boolean isOpenTag(String input, int beginPos) {
+		return ip.isOpenTag(input, beginPos);
+	}
+
+	@Override
+	public boolean isClosingTag(String input, int beginPos) {
+		return ip.isClosingTag(input, beginPos);
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import nikoladasm.commonmark.IncrementalParser;
+import nikoladasm.commonmark.Parser;
+import nikoladasm.commonmark.nodes.Node;
+
+/*
+ * A keystroke in the middle of a document, typed and then deleted
+ * again, reparsing the whole document or only the edited blocks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EditBenchmark {
+
+	@Param({"20000", "200000", "2000000"})
+	public int length;
+
+	private Parser parser;
+	private IncrementalParser incrementalParser;
+	private String document;
+	private String edited;
+	private int line;
+	private String original;
+	private String typed;
+
+	@Setup
+	public void setup() {
+		parser = Parser.getInstance();
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < length)
+			for (String document : Corpus.documents()) {
+				if (sb.length() >= length) break;
+				sb.append(document).append("\n\n");
+			}
+		incrementalParser = new IncrementalParser();
+		incrementalParser.parse(sb.toString());
+		document = incrementalParser.text();
+		line = incrementalParser.lineCount() / 2;
+		while (document.split("\n", -1)[line-1].isEmpty())
+			line++;
+		original = document.split("\n", -1)[line-1] + "\n";
+		typed = "x" + original;
+		incrementalParser.edit(line, line, typed);
+		edited = incrementalParser.text();
+		incrementalParser.edit(line, line, original);
+	}
+
+	@Benchmark
+	public Node fullParse() {
+		parser.parse(edited);
+		return parser.parse(document);
+	}
+
+	@Benchmark
+	public Node incrementalEdit() {
+		incrementalParser.edit(line, line, typed);
+		return incrementalParser.edit(line, line, original);
+	}
+}
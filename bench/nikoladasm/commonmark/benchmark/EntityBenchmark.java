@@ -0,0 +1,70 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import nikoladasm.commonmark.CharReaderImpl;
+import nikoladasm.commonmark.InlineParser;
+import nikoladasm.commonmark.InlineParserImpl;
+
+@State(Scope.Thread)
+public class EntityBenchmark {
+
+	private static final String[] ENTITIES = {
+		"&amp;", "&lt;", "&gt;", "&quot;", "&nbsp;", "&copy;", "&eacute;",
+		"&hellip;", "&mdash;", "&rarr;", "&ClockwiseContourIntegral;",
+		"&NotGreaterFullEqual;", "&frac12;", "&Dcaron;", "&unknown;"
+	};
+
+	private InlineParser ip;
+	private String input;
+
+	@Setup
+	public void setup() {
+		ip = new InlineParserImpl(new CharReaderImpl());
+		ip.unescapeString("\\* &#35; &#x23;");
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; sb.length() < 64 * 1024; i++)
+			sb.append("text ").append(ENTITIES[i % ENTITIES.length]).append(' ');
+		input = sb.toString();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(10)
+	public String firstEntity() {
+		return ip.unescapeString("&ClockwiseContourIntegral;");
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Warmup(iterations = 5, time = 1)
+	@Measurement(iterations = 5, time = 1)
+	@Fork(1)
+	public String unescapeEntities() {
+		return ip.unescapeString(input);
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nikoladasm.commonmark.HtmlRenderer;
+import nikoladasm.commonmark.Parser;
+import nikoladasm.commonmark.nodes.Node;
+
+/*
+ * One renderer and one set of parsed documents are shared by all
+ * benchmark threads, run with e.g. -t 1, -t 2, -t 4 to see scaling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlRendererBenchmark {
+
+	private HtmlRenderer renderer;
+	private List<Node> documents;
+
+	@Setup
+	public void setup() {
+		renderer = new HtmlRenderer();
+		documents = new ArrayList<>();
+		Parser parser = Parser.getInstance();
+		for (String document : Corpus.documents()) {
+			Node ast = parser.parse(document);
+			// materializes lazily built literals before the tree is shared
+			renderer.render(ast);
+			documents.add(ast);
+		}
+	}
+
+	@Benchmark
+	public void render(Blackhole bh) {
+		for (Node document : documents)
+			bh.consume(renderer.render(document));
+	}
+}
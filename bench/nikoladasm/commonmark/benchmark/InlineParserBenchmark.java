@@ -0,0 +1,80 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nikoladasm.commonmark.CharReaderImpl;
+import nikoladasm.commonmark.InlineParser;
+import nikoladasm.commonmark.InlineParserImpl;
+import nikoladasm.commonmark.Parser;
+import nikoladasm.commonmark.nodes.BaseBlockNode;
+import nikoladasm.commonmark.nodes.BlockNode;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InlineParserBenchmark {
+
+	private static class RecordingInlineParser extends DelegatingInlineParser {
+		private final List<String> contents;
+
+		private RecordingInlineParser(InlineParser ip, List<String> contents) {
+			super(ip);
+			this.contents = contents;
+		}
+
+		@Override
+		public void parseInline(BlockNode root) {
+			contents.add(root.stringContent());
+			ip.parseInline(root);
+		}
+	}
+
+	private InlineParser ip;
+	private List<String> contents;
+
+	@Setup
+	public void setup() {
+		ip = new InlineParserImpl(new CharReaderImpl());
+		contents = new ArrayList<>();
+		Parser p = new Parser(new RecordingInlineParser(ip, contents));
+		for (String document : Corpus.documents())
+			p.parse(document);
+		ip.refmap().clear();
+	}
+
+	@Benchmark
+	public void parseInline(Blackhole bh) {
+		for (String content : contents) {
+			BlockNode node = new BaseBlockNode(0, 0) {};
+			node.stringContent(content);
+			ip.parseInline(node);
+			bh.consume(node);
+		}
+	}
+}
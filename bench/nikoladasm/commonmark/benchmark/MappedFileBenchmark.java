@@ -0,0 +1,97 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import nikoladasm.commonmark.ParseEventHandler;
+import nikoladasm.commonmark.Parser;
+import nikoladasm.commonmark.nodes.Node;
+
+/*
+ * Parses a file made of the corpus repeated, memory mapped with
+ * Parser.parse(Path) or read with Files.newBufferedReader. The events
+ * variants don't keep the tree; run with -prof gc to compare the bytes
+ * allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MappedFileBenchmark {
+
+	private static final ParseEventHandler NO_OP = new ParseEventHandler() {};
+
+	@Param({"4", "32"})
+	public int megabytes;
+
+	private Parser parser;
+	private Path path;
+
+	@Setup
+	public void setup() throws IOException {
+		List<String> documents = Corpus.documents();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; sb.length() < megabytes * 1024 * 1024; i++)
+			sb.append(documents.get(i % documents.size())).append("\n\n");
+		path = Files.createTempFile("corpus", ".md");
+		Files.write(path, sb.toString().getBytes(UTF_8));
+		parser = Parser.getInstance();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.delete(path);
+	}
+
+	@Benchmark
+	public Node mapped() {
+		return parser.parse(path);
+	}
+
+	@Benchmark
+	public Node reader() throws IOException {
+		try (Reader reader = Files.newBufferedReader(path)) {
+			return parser.parse(reader);
+		}
+	}
+
+	@Benchmark
+	public void mappedEvents() {
+		parser.parse(path, NO_OP);
+	}
+
+	@Benchmark
+	public void readerEvents() throws IOException {
+		try (Reader reader = Files.newBufferedReader(path)) {
+			parser.parse(reader, NO_OP);
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import nikoladasm.commonmark.Parser;
+import nikoladasm.commonmark.nodes.Node;
+
+/*
+ * Parses one huge document made of the corpus repeated, sequentially
+ * or with the block and inline phases split across the common pool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParallelParseBenchmark {
+
+	@Param({"10", "50"})
+	public int megabytes;
+
+	@Param({"sequential", "parallelBlock", "parallelBlockAndInline"})
+	public String mode;
+
+	private Parser parser;
+	private String document;
+
+	@Setup
+	public void setup() {
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < megabytes * 1024 * 1024)
+			for (String document : Corpus.documents())
+				sb.append(document).append("\n\n");
+		document = sb.toString();
+		parser = Parser.getInstance();
+		if (!mode.equals("sequential"))
+			parser.parallelBlockThreshold(0);
+		if (mode.equals("parallelBlockAndInline"))
+			parser.parallelInlineThreshold(0);
+	}
+
+	@Benchmark
+	public Node parse() {
+		return parser.parse(document);
+	}
+}
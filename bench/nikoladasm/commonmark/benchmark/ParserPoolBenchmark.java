@@ -0,0 +1,55 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import nikoladasm.commonmark.Parser;
+import nikoladasm.commonmark.ParserPool;
+import nikoladasm.commonmark.nodes.Node;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserPoolBenchmark {
+
+	private static final String INPUT = "Hello *world*, see [the docs](/docs).\n";
+
+	private ParserPool pool;
+
+	@Setup
+	public void setup() {
+		pool = new ParserPool();
+	}
+
+	@Benchmark
+	public Node newParser() {
+		return Parser.getInstance().parse(INPUT);
+	}
+
+	@Benchmark
+	public Node pooledParser() {
+		return pool.parse(INPUT);
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import nikoladasm.commonmark.HtmlRenderer;
+import nikoladasm.commonmark.Parser;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss256m")
+public class PathologicalBenchmark {
+
+	@Param({"nestedStrongEmph", "emphClosers", "mismatchedDelimiters",
+		"linkOpenersEmphClosers", "emphOpenersLinkClosers", "nestedBrackets",
+		"unclosedLinks", "unclosedLinkTitles", "backticks", "unclosedHtml"})
+	public String pattern;
+
+	@Param({"1000", "10000", "100000"})
+	public int repeat;
+
+	private Parser parser;
+	private HtmlRenderer renderer;
+	private String input;
+
+	@Setup
+	public void setup() {
+		parser = Parser.getInstance();
+		renderer = new HtmlRenderer();
+		input = input(pattern, repeat);
+	}
+
+	static String input(String pattern, int n) {
+		switch (pattern) {
+			case "nestedStrongEmph":
+				return "*a **a ".repeat(n) + "b" + " a** a*".repeat(n);
+			case "emphClosers":
+				return "a_ ".repeat(n);
+			case "mismatchedDelimiters":
+				return "*a_ ".repeat(n);
+			case "linkOpenersEmphClosers":
+				return "[ a_".repeat(n);
+			case "emphOpenersLinkClosers":
+				return "*a".repeat(n) + "]".repeat(n);
+			case "nestedBrackets":
+				return "[".repeat(n) + "a" + "]".repeat(n);
+			case "unclosedLinks":
+				return "[a](b".repeat(n);
+			case "unclosedLinkTitles":
+				return "[ (](".repeat(n);
+			case "backticks":
+				StringBuilder sb = new StringBuilder();
+				for (int i = 1; sb.length() < n * 4; i++)
+					sb.append('e').append("`".repeat(i));
+				return sb.toString();
+			case "unclosedHtml":
+				return "a " + "<?".repeat(n) + "<![CDATA[".repeat(n);
+			default:
+				throw new IllegalArgumentException(pattern);
+		}
+	}
+
+	@Benchmark
+	public String parseAndRender() {
+		return renderer.render(parser.parse(input));
+	}
+}
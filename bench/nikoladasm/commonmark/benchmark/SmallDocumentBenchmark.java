@@ -0,0 +1,72 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import nikoladasm.commonmark.Parser;
+import nikoladasm.commonmark.nodes.Node;
+
+/*
+ * Per-call overhead of Parser.parse(String) on small documents, against
+ * the Reader path that goes through a BufferedReader.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmallDocumentBenchmark {
+
+	private static final String MARKDOWN =
+		"## Notes\n\n" +
+		"Some *emphasis*, a [link](http://example.com) and `code`.\n" +
+		"- first item\n- second **item**\n\n" +
+		"> quoted text\n> over two lines\n\n" +
+		"1. one\n2. two\n\n";
+
+	@Param({"50", "256", "1024", "4096"})
+	public int length;
+
+	private Parser parser;
+	private String document;
+
+	@Setup
+	public void setup() {
+		parser = Parser.getInstance();
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < length)
+			sb.append(MARKDOWN);
+		document = sb.substring(0, length);
+	}
+
+	@Benchmark
+	public Node parseString() {
+		return parser.parse(document);
+	}
+
+	@Benchmark
+	public Node parseReader() {
+		return parser.parse(new StringReader(document));
+	}
+}
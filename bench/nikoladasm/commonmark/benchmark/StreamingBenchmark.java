@@ -0,0 +1,85 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import nikoladasm.commonmark.AppendRenderSession;
+import nikoladasm.commonmark.HtmlRenderer;
+import nikoladasm.commonmark.Parser;
+
+/*
+ * Renders a message growing by small deltas, as chat output arrives,
+ * after every delta.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamingBenchmark {
+
+	@Param({"2000", "20000"})
+	public int length;
+
+	@Param({"4", "16"})
+	public int delta;
+
+	private Parser parser;
+	private HtmlRenderer renderer;
+	private String message;
+
+	@Setup
+	public void setup() {
+		parser = Parser.getInstance();
+		renderer = new HtmlRenderer();
+		StringBuilder sb = new StringBuilder();
+		for (String document : Corpus.documents()) {
+			if (sb.length() >= length) break;
+			sb.append(document).append("\n\n");
+		}
+		message = sb.substring(0, Math.min(sb.length(), length));
+	}
+
+	@Benchmark
+	public int fullReparse() {
+		int total = 0;
+		for (int i = 0; i < message.length(); i += delta) {
+			String prefix = message.substring(0, Math.min(message.length(), i + delta));
+			total += renderer.render(parser.parse(prefix)).length();
+		}
+		return total;
+	}
+
+	@Benchmark
+	public int appendSession() {
+		AppendRenderSession session = new AppendRenderSession(Parser::getInstance, renderer);
+		int total = 0;
+		for (int i = 0; i < message.length(); i += delta) {
+			AppendRenderSession.Update update =
+				session.append(message.substring(i, Math.min(message.length(), i + delta)));
+			for (int index : update.changed())
+				total += session.html(index).length();
+		}
+		return total + session.finish().blockCount();
+	}
+}
@@ -0,0 +1,4 @@
+package nikoladasm.commonmark.benchmark.jmh_generated;
+public class ChannelOutputBenchmark_jmhType extends ChannelOutputBenchmark_jmhType_B3 {
+}
+
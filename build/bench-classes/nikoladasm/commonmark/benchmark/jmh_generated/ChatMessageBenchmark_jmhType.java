@@ -0,0 +1,4 @@
+package nikoladasm.commonmark.benchmark.jmh_generated;
+public class ChatMessageBenchmark_jmhType extends ChatMessageBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package nikoladasm.commonmark.benchmark.jmh_generated;
+public class CorpusBenchmark_jmhType extends CorpusBenchmark_jmhType_B3 {
+}
+
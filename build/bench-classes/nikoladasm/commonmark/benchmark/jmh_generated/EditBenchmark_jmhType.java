@@ -0,0 +1,4 @@
+package nikoladasm.commonmark.benchmark.jmh_generated;
+public class EditBenchmark_jmhType extends EditBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package nikoladasm.commonmark.benchmark.jmh_generated;
+public class EntityBenchmark_jmhType extends EntityBenchmark_jmhType_B3 {
+}
+
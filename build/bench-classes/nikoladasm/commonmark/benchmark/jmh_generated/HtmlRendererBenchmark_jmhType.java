@@ -0,0 +1,4 @@
+package nikoladasm.commonmark.benchmark.jmh_generated;
+public class HtmlRendererBenchmark_jmhType extends HtmlRendererBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package nikoladasm.commonmark.benchmark.jmh_generated;
+public class InlineParserBenchmark_jmhType extends InlineParserBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package nikoladasm.commonmark.benchmark.jmh_generated;
+public class MappedFileBenchmark_jmhType extends MappedFileBenchmark_jmhType_B3 {
+}
+
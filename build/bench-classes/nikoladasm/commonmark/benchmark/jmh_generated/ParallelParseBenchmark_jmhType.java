@@ -0,0 +1,4 @@
+package nikoladasm.commonmark.benchmark.jmh_generated;
+public class ParallelParseBenchmark_jmhType extends ParallelParseBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package nikoladasm.commonmark.benchmark.jmh_generated;
+public class ParserPoolBenchmark_jmhType extends ParserPoolBenchmark_jmhType_B3 {
+}
+
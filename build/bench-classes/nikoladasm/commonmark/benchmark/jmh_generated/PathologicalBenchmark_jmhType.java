@@ -0,0 +1,4 @@
+package nikoladasm.commonmark.benchmark.jmh_generated;
+public class PathologicalBenchmark_jmhType extends PathologicalBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package nikoladasm.commonmark.benchmark.jmh_generated;
+public class SmallDocumentBenchmark_jmhType extends SmallDocumentBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package nikoladasm.commonmark.benchmark.jmh_generated;
+public class StreamingBenchmark_jmhType extends StreamingBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,267 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import nikoladasm.commonmark.nodes.BlockNode;
+import nikoladasm.commonmark.nodes.Node;
+
+/*
+ * Renders a document which only grows at its end, as streamed chat
+ * output does. Top level blocks closed by the parser are rendered once
+ * and kept, only the still open tail is parsed again on each append.
+ * Closed blocks which may use link references are rendered again when
+ * the known definitions change.
+ */
+public class AppendRenderSession {
+
+	public static class Update {
+		private final int[] changed;
+		private final int blockCount;
+		
+		private Update(int[] changed, int blockCount) {
+			this.changed = changed;
+			this.blockCount = blockCount;
+		}
+		
+		/* Indexes of the top level blocks with new HTML in ascending order. */
+		public int[] changed() {
+			return changed;
+		}
+		
+		public int blockCount() {
+			return blockCount;
+		}
+		
+		@Override
+		public String toString() {
+			return "Update " + Arrays.toString(changed) + " of " + blockCount;
+		}
+	}
+	
+	private static class ReferenceBlock {
+		private final int index;
+		private final int startLine;
+		private final int endLine;
+		private int refs;
+		private String tailRefs;
+		
+		private ReferenceBlock(int index, int startLine, int endLine) {
+			this.index = index;
+			this.startLine = startLine;
+			this.endLine = endLine;
+		}
+	}
+	
+	private final Parser parser;
+	private final Parser tailParser;
+	private final HtmlRenderer renderer;
+	private final StringBuilder source = new StringBuilder();
+	private int[] lineStarts = new int[64];
+	private int lines = 1;
+	private boolean skipLF;
+	private final List<String> html = new ArrayList<>();
+	private int closed;
+	private final List<ReferenceBlock> referenceBlocks = new ArrayList<>();
+	private int refs;
+	private String tailRefs = "";
+	private boolean finished;
+	
+	public AppendRenderSession() {
+		this(Parser::getInstance, new HtmlRenderer());
+	}
+	
+	public AppendRenderSession(Supplier<Parser> factory, HtmlRenderer renderer) {
+		this.parser = factory.get();
+		this.tailParser = factory.get();
+		this.renderer = renderer;
+		parser.start();
+	}
+	
+	public Update append(CharSequence text) {
+		if (finished)
+			throw new IllegalStateException("Session is finished");
+		appendSource(text);
+		parser.feed(text);
+		return update();
+	}
+	
+	public Update finish() {
+		if (finished)
+			throw new IllegalStateException("Session is finished");
+		finished = true;
+		parser.close();
+		return update();
+	}
+	
+	public boolean isFinished() {
+		return finished;
+	}
+	
+	public int blockCount() {
+		return html.size();
+	}
+	
+	public String html(int index) {
+		return html.get(index);
+	}
+	
+	public String html() {
+		StringBuilder sb = new StringBuilder();
+		html.forEach(sb::append);
+		return sb.toString();
+	}
+	
+	public String source() {
+		return source.toString();
+	}
+	
+	private void appendSource(CharSequence text) {
+		int base = source.length();
+		int length = text.length();
+		source.append(text);
+		int begin = 0;
+		if (skipLF && length > 0) {
+			if (text.charAt(0) == '\n') {
+				lineStarts[lines-1]++;
+				begin = 1;
+			}
+			skipLF = false;
+		}
+		for (int i = begin; i < length; i++) {
+			char c = text.charAt(i);
+			if (c == '\r') {
+				if (i+1 == length)
+					skipLF = true;
+				else if (text.charAt(i+1) == '\n')
+					i++;
+			} else if (c != '\n') {
+				continue;
+			}
+			if (lines == lineStarts.length)
+				lineStarts = Arrays.copyOf(lineStarts, lines*2);
+			lineStarts[lines++] = base+i+1;
+		}
+	}
+	
+	private int lineStart(int line) {
+		return (line > lines) ? source.length() : lineStarts[line-1];
+	}
+	
+	private Update update() {
+		BitSet changed = new BitSet();
+		boolean added = false;
+		Node block;
+		while ((block = parser.closedBlock()) != null) {
+			ReferenceBlock rb = null;
+			if (parser.mayUseReference(block)) {
+				BlockNode node = (BlockNode) block;
+				rb = new ReferenceBlock(closed, node.startLine(), node.endLine());
+				referenceBlocks.add(rb);
+				added = true;
+			}
+			parser.processInlines(block);
+			if (rb != null) {
+				rb.refs = parser.refmap().size();
+				rb.tailRefs = "";
+			}
+			set(closed++, renderer.render(block), changed);
+			block.unlink();
+		}
+		Node open = parser.document().firstChild();
+		int tailLine = (open == null) ?
+			parser.lineNumber()+1 : ((BlockNode) open).startLine();
+		int count = closed;
+		String tailRefs = "";
+		Map<String,Link> refmap = parser.refmap();
+		int start = lineStart(tailLine);
+		if (start < source.length()) {
+			Node tail = parse(tailLine, source.substring(start));
+			for (Node child = tail.firstChild(); child != null; child = child.next())
+				set(count++, renderer.render(child), changed);
+			if (tailParser.refmap().size() > refmap.size()) {
+				refmap = new HashMap<>(tailParser.refmap());
+				tailRefs = tailReferences(refmap);
+			}
+		}
+		while (html.size() > count)
+			html.remove(html.size()-1);
+		int refs = parser.refmap().size();
+		if (added || refs != this.refs || !tailRefs.equals(this.tailRefs)) {
+			this.refs = refs;
+			this.tailRefs = tailRefs;
+			for (ReferenceBlock rb : referenceBlocks)
+				if (rb.refs != refs || !tailRefs.equals(rb.tailRefs))
+					render(rb, refmap, changed);
+		}
+		return new Update(changed.stream().toArray(), html.size());
+	}
+	
+	private Node parse(int firstLine, String text) {
+		tailParser.references(parser.refmap());
+		tailParser.firstLine(firstLine);
+		return tailParser.parse(text);
+	}
+	
+	private void render(ReferenceBlock rb, Map<String,Link> refmap, BitSet changed) {
+		tailParser.references(refmap);
+		tailParser.firstLine(rb.startLine);
+		int end = lineStart(rb.endLine+1);
+		Node document = tailParser.parse(source.substring(lineStart(rb.startLine), end));
+		set(rb.index, renderer.render(document), changed);
+		rb.refs = refs;
+		rb.tailRefs = tailRefs;
+	}
+	
+	/*
+	 * Definitions made by the open tail, which the closed blocks see
+	 * when the input ends here.
+	 */
+	private String tailReferences(Map<String,Link> refmap) {
+		Map<String,Link> main = parser.refmap();
+		TreeMap<String,Link> tail = new TreeMap<>();
+		refmap.forEach((label, link) -> {
+			if (!main.containsKey(label)) tail.put(label, link);
+		});
+		StringBuilder sb = new StringBuilder();
+		tail.forEach((label, link) ->
+			sb.append(label).append('\0').append(link.reference)
+				.append('\0').append(link.title).append('\n'));
+		return sb.toString();
+	}
+	
+	private void set(int index, String value, BitSet changed) {
+		if (index == html.size()) {
+			html.add(value);
+		} else if (!html.get(index).equals(value)) {
+			html.set(index, value);
+		} else {
+			return;
+		}
+		changed.set(index);
+	}
+}
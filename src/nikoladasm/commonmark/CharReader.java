@@ -33,4 +33,6 @@ public interface CharReader {
 	void repeat();
 	boolean hasNext();
 	public char next();
+	int plainRunLength();
+	int nextPlainRun(StringBuilder sb);
 }
@@ -18,26 +18,43 @@
 
 package nikoladasm.commonmark;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Properties;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 import static nikoladasm.commonmark.CharReaderImpl.State.*;
 
 public class CharReaderImpl implements CharReader {
 
-	private static class CharBuffers {
-		private char[] buff1 = new char[1];
-		private char[] buff2 = new char[2];
-		private char[] buff3 = new char[3];
-		private char[] buff4 = new char[4];
+	private static class CharIndex {
+		private final char ch;
+		private int begin;
+		private int end = -1;
+		
+		private CharIndex(char ch) {
+			this.ch = ch;
+		}
+		
+		private void reset() {
+			end = -1;
+		}
+		
+		private int next(String str, int pos) {
+			if (end >= 0 && pos >= begin && pos <= end)
+				return end;
+			int limit = (end >= 0 && pos < begin) ? begin : str.length();
+			int i = pos;
+			while (i < limit && str.charAt(i) != ch) i++;
+			if (i >= limit && limit < str.length()) {
+				begin = pos;
+				return end;
+			}
+			begin = pos;
+			end = i;
+			return end;
+		}
 	}
-
+	
 	protected static enum State {
 		UNKNOWN_CHAR,
 		MAYBE_ESCAPING_CHAR,
@@ -55,114 +72,10 @@ public class CharReaderImpl implements CharReader {
 		void handle();
 	}
 	
-	private static final String ENTITIES_PROPERTY_FILE =
-		"resources/entities.properies";
 	private static final String ESCAPABLE = "\\!\"#$%&'()*+,./:;<=>?@[]^_`{|}~-";
 	private static final Function<Character,Boolean> DEFAULT_ESCAPABLE_CHAR_FUNC =
 		c -> ESCAPABLE.contains(String.valueOf(c));
 	
-	private static AtomicReference<Properties> entities = new AtomicReference<>();
-	private static Map<String,char[]> entityMap = new ConcurrentHashMap<>();
-	private static ThreadLocal<CharBuffers> charBuffers = new ThreadLocal<>();
-
-	private static int codePointToCharBuffers(int codePoint, CharBuffers buffs, int charCount) {
-		char lead, trail;
-		if (codePoint < 65536) {
-			lead = (char)codePoint;
-			if (charCount < 1) buffs.buff1[charCount] = lead;
-			if (charCount < 2) buffs.buff2[charCount] = lead;
-			if (charCount < 3) buffs.buff3[charCount] = lead;
-			buffs.buff4[charCount] = lead;
-			charCount++;
-		} else {
-			lead = (char)((codePoint >>> 10) + 55232);
-			trail = (char)((codePoint & 1023) + 56320);
-			if (charCount < 1) buffs.buff1[charCount] = lead;
-			if (charCount < 2) buffs.buff2[charCount] = lead;
-			if (charCount < 3) buffs.buff3[charCount] = lead;
-			buffs.buff4[charCount] = lead;
-			charCount++;
-			if (charCount < 1) buffs.buff1[charCount] = trail;
-			if (charCount < 2) buffs.buff2[charCount] = trail;
-			if (charCount < 3) buffs.buff3[charCount] = trail;
-			buffs.buff4[charCount] = trail;
-			charCount++;
-		}
-		return charCount;
-	}
-	
-	private static char[] decodeEntity(String entity) {
-		if (!entityMap.containsKey(entity)) {
-			if (entities.get() == null) {
-				Properties ent = new Properties();
-				InputStream is = CharReaderImpl.class.getResourceAsStream(ENTITIES_PROPERTY_FILE);
-				if (is == null)
-					is = CharReaderImpl.class.getClassLoader().getResourceAsStream(ENTITIES_PROPERTY_FILE);
-				if (is == null) throw new RuntimeException("File \"entities.properties\" not found.");
-				try {
-					ent.load(is);
-					is.close();
-				} catch (IOException e) {
-					throw new RuntimeException("Could not load file \"entities.properties\"");
-				}
-				entities.set(ent);
-			}
-			Properties ent = entities.get();
-			if (!ent.containsKey(entity))
-				return null;
-			if (charBuffers.get() == null)
-				charBuffers.set(new CharBuffers());
-			CharBuffers cbuff = charBuffers.get();
-			String strCodePoint = ent.getProperty(entity);
-			int charCount = 0;
-			if (strCodePoint.contains(",")) {
-				StringBuilder sb = new StringBuilder();
-				char c;
-				int length = strCodePoint.length();
-				for (int i=0; i < length; i++) {
-					c = strCodePoint.charAt(i);
-					if (c == ',' || i >= length-1) {
-						if (c != ',') sb.append(c);
-						String num = sb.toString();
-						sb = new StringBuilder();
-						if (num.isEmpty()) continue;
-						int codePoint = Integer.valueOf(num);
-						charCount = codePointToCharBuffers(codePoint, cbuff, charCount);
-					} else {
-						sb.append(c);
-					}
-				}
-				switch (charCount) {
-					case 1: {
-						entityMap.put(entity, cbuff.buff1);
-						cbuff.buff1 = new char[1];
-						break;
-					}
-					case 2: {
-						entityMap.put(entity, cbuff.buff2);
-						cbuff.buff2 = new char[2];
-						break;
-					}
-					case 3: {
-						entityMap.put(entity, cbuff.buff3);
-						cbuff.buff3 = new char[3];
-						break;
-					}
-					case 4: {
-						entityMap.put(entity, cbuff.buff4);
-						cbuff.buff4 = new char[4];
-						break;
-					}
-				}
-			} else {
-				int codePoint = Integer.valueOf(strCodePoint);
-				char[] chars = Character.toChars(codePoint);
-				entityMap.put(entity, chars);
-			}
-		}
-		return entityMap.get(entity);
-	}
-	
 	private State state;
 	private int charIndex = 0;
 	private boolean empty = true;
@@ -180,6 +93,8 @@ public class CharReaderImpl implements CharReader {
 	private char next;
 	private char[] chars;
 	private boolean repeat;
+	private CharIndex backslashIndex = new CharIndex('\\');
+	private CharIndex ampersandIndex = new CharIndex('&');
 
 	private Map<State,CharReaderHandler> handlersMap;
 	
@@ -218,6 +133,8 @@ public class CharReaderImpl implements CharReader {
 		empty = true;
 		repeat = false;
 		pos = 0;
+		backslashIndex.reset();
+		ampersandIndex.reset();
 	}
 	
 	@Override
@@ -373,7 +290,7 @@ public class CharReaderImpl implements CharReader {
 	private void maybeNamedEntityHandler() {
 		entityLength = entityBeginPos-newPos-1;
 		if (c == ';' && entityLength <= 32) {
-			char[] ch = decodeEntity(inputString.substring(entityBeginPos, newPos+1));
+			char[] ch = EntityTable.lookup(inputString, entityBeginPos+1, newPos);
 			if (ch == null) {
 				newPos = entityBeginPos;
 				next = '&';
@@ -399,6 +316,29 @@ public class CharReaderImpl implements CharReader {
 		}
 	}
 	
+	@Override
+	public int plainRunLength() {
+		if (repeat || !empty) return 0;
+		int end = length;
+		if (unescape)
+			end = backslashIndex.next(inputString, pos);
+		if (processEntity)
+			end = Math.min(end, ampersandIndex.next(inputString, pos));
+		return end - pos;
+	}
+	
+	@Override
+	public int nextPlainRun(StringBuilder sb) {
+		int count = plainRunLength();
+		if (count > 0) {
+			sb.append(inputString, pos, pos + count);
+			pos += count;
+			next = inputString.charAt(pos - 1);
+			escaped = false;
+		}
+		return count;
+	}
+	
 	@Override
 	public char next() {
 		if (repeat) {
@@ -18,10 +18,11 @@
 
 package nikoladasm.commonmark;
 
-import java.util.Deque;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Map;
 
 import nikoladasm.commonmark.nodes.*;
@@ -30,26 +31,83 @@ public class HtmlRenderer {
 
 	@FunctionalInterface
 	private static interface Renderer {
-		void render(Node node);
+		void render(RenderContext ctx, Node node);
+	}
+	
+	private static class RenderContext {
+		private final String softbreak;
+		private final boolean safe;
+		private final boolean sourcepos;
+		private final boolean flush;
+		private StringBuilder sb = new StringBuilder();
+		private StringBuilder tmp = new StringBuilder();
+		private CharSequence lastOut = "\n";
+		private Map<String,String> attr = new HashMap<>();
+		private int disableTags;
+		
+		private RenderContext(HtmlRenderer renderer) {
+			softbreak = renderer.softbreak;
+			safe = renderer.safe;
+			sourcepos = renderer.sourcepos;
+			flush = renderer.flush;
+		}
+	}
+	
+	/*
+	 * Configures a renderer, which can't be changed once built and so
+	 * can be shared by threads.
+	 */
+	public static class Builder {
+		private String softbreak = "\n";
+		private boolean safe;
+		private boolean sourcepos;
+		private boolean flush;
+		
+		private Builder() {
+		}
+		
+		public Builder softbreak(String softbreak) {
+			this.softbreak = softbreak;
+			return this;
+		}
+		
+		public Builder safe(boolean safe) {
+			this.safe = safe;
+			return this;
+		}
+		
+		public Builder sourcepos(boolean sourcepos) {
+			this.sourcepos = sourcepos;
+			return this;
+		}
+		
+		public Builder flush(boolean flush) {
+			this.flush = flush;
+			return this;
+		}
+		
+		public HtmlRenderer build() {
+			return new HtmlRenderer(this);
+		}
 	}
 	
-	private String softbreak;
-	private Map<Class<? extends Node>,Renderer> renderers;
-	private Map<Class<? extends Node>,Renderer> closingTagRenderers;
-	private StringBuilder sb;
-	private String lastOut;
-	private boolean safe;
-	private boolean sourcepos;
-	private int disableTags;
-	private Map<String,String> attr = new HashMap<>();
-	private StringBuilder tmp;
+	private final String softbreak;
+	private final Map<Class<? extends Node>,Renderer> renderers;
+	private final Map<Class<? extends Node>,Renderer> closingTagRenderers;
+	private final boolean safe;
+	private final boolean sourcepos;
+	private final boolean flush;
 	
 	public HtmlRenderer() {
-		softbreak = "\n";
-		lastOut = "\n";
-		safe = false;
-		disableTags = 0;
-		renderers = new HashMap<>();
+		this(builder());
+	}
+	
+	private HtmlRenderer(Builder builder) {
+		softbreak = builder.softbreak;
+		safe = builder.safe;
+		sourcepos = builder.sourcepos;
+		flush = builder.flush;
+		Map<Class<? extends Node>,Renderer> renderers = new HashMap<>();
 		renderers.put(InlineTextNode.class, this::inlineText);
 		renderers.put(InlineSoftBreakNode.class, this::softBreak);
 		renderers.put(InlineLineBreakNode.class, this::lineBreak);
@@ -67,7 +125,7 @@ public class HtmlRenderer {
 		renderers.put(ListBlockNode.class, this::openList);
 		renderers.put(ItemBlockNode.class, this::openItem);
 		renderers.put(HtmlBlockNode.class, this::htmlBlock);
-		closingTagRenderers = new HashMap<>();
+		Map<Class<? extends Node>,Renderer> closingTagRenderers = new HashMap<>();
 		closingTagRenderers.put(InlineLinkNode.class, this::closeLink);
 		closingTagRenderers.put(InlineImageNode.class, this::closeImage);
 		closingTagRenderers.put(InlineEmphasisNode.class, this::closeEmphasis);
@@ -77,89 +135,214 @@ public class HtmlRenderer {
 		closingTagRenderers.put(BlockQuoteNode.class, this::closeBlockQuote);
 		closingTagRenderers.put(ListBlockNode.class, this::closeList);
 		closingTagRenderers.put(ItemBlockNode.class, this::closeItem);
+		this.renderers = renderers;
+		this.closingTagRenderers = closingTagRenderers;
 	}
 	
-	public String softbreak() {
-		return softbreak;
+	public static Builder builder() {
+		return new Builder();
 	}
 	
-	public void softbreak(String softbreak) {
-		this.softbreak = softbreak;
+	public String softbreak() {
+		return softbreak;
 	}
 	
 	public boolean isSafe() {
 		return safe;
 	}
 	
-	public void safe(boolean safe) {
-		this.safe = safe;
-	}
-	
 	public boolean isSourcepos() {
 		return sourcepos;
 	}
 	
-	public void sourcepos(boolean sourcepos) {
-		this.sourcepos = sourcepos;
+	public boolean isFlush() {
+		return flush;
+	}
+	
+	private class RenderSink implements ParseEventHandler {
+		private final RenderContext ctx;
+		private final Appendable out;
+		
+		private RenderSink(RenderContext ctx, Appendable out) {
+			this.ctx = ctx;
+			this.out = out;
+		}
+		
+		private void enter(Node node) {
+			Renderer renderer = renderers.get(node.getClass());
+			if (renderer == null) return;
+			ctx.attr.clear();
+			if (ctx.sourcepos && node instanceof BlockNode) {
+				BlockNode bNode = (BlockNode) node;
+				StringBuilder tmp = ctx.tmp;
+				tmp.setLength(0);
+				ctx.attr.put("data-sourcepos",
+					tmp.append(bNode.startLine())
+					.append(':').append(bNode.startColumn())
+					.append('-').append(bNode.endLine())
+					.append(':').append(bNode.endColumn())
+					.toString());
+			}
+			renderer.render(ctx, node);
+		}
+		
+		private void exit(Node node) {
+			Renderer renderer = closingTagRenderers.get(node.getClass());
+			if (renderer != null) renderer.render(ctx, node);
+		}
+		
+		@Override
+		public void enterBlock(BlockNode block) {
+			enter(block);
+		}
+		
+		@Override
+		public void exitBlock(BlockNode block) {
+			exit(block);
+			if (out != null &&
+				(block instanceof DocumentNode || block.parent() instanceof DocumentNode))
+				writeOut();
+			if (block instanceof DocumentNode && out instanceof Utf8ChannelOutput)
+				finish();
+		}
+		
+		@Override
+		public void enterInline(InlineNode inline) {
+			enter(inline);
+		}
+		
+		@Override
+		public void exitInline(InlineNode inline) {
+			exit(inline);
+		}
+		
+		private void writeOut() {
+			try {
+				HtmlRenderer.this.writeOut(ctx, out);
+			} catch (IOException e) {
+				throw new CommonMarkParserException("Can't write output", e);
+			}
+		}
+		
+		private void finish() {
+			try {
+				((Utf8ChannelOutput) out).finish();
+			} catch (IOException e) {
+				throw new CommonMarkParserException("Can't write output", e);
+			}
+		}
 	}
 	
 	public String render(Node ast) {
 		if (ast == null) return null;
-		lastOut = "\n";
-		Node current = ast;
-		Deque<Iterator<Node>> stack = new LinkedList<>();
-		Deque<Node> nodeStack = new LinkedList<>();
-		boolean finished = false;
-		sb = new StringBuilder();
-		tmp = new StringBuilder();
-		while (!finished) {
-			while (current != null) {
-				Class<? extends Node> clazz = current.getClass();
-				Renderer renderer = renderers.get(clazz);
-				if (renderer != null) {
-					attr.clear();
-					if (sourcepos && current instanceof BlockNode) {
-						BlockNode bNode = (BlockNode) current;
-						tmp.setLength(0);
-						attr.put("data-sourcepos",
-							tmp.append(bNode.startLine())
-							.append(':').append(bNode.startColumn())
-							.append('-').append(bNode.endLine())
-							.append(':').append(bNode.endColumn())
-							.toString());
-					}
-					renderer.render(current);
-				}
-				if (current.childs().isEmpty()) {
-					renderer = closingTagRenderers.get(clazz);
-					if (renderer != null) renderer.render(current);
-					break;
-				}
-				Iterator<Node> iterator = current.childs().iterator();
-				stack.push(iterator);
-				nodeStack.push(current);
-				current = iterator.next();
+		RenderContext ctx = new RenderContext(this);
+		NodeEvents.walk(ast, new RenderSink(ctx, null));
+		return ctx.sb.toString();
+	}
+	
+	/*
+	 * Parses and renders input. Plain prose without any markdown syntax
+	 * is escaped and written out directly.
+	 */
+	public String render(String input, Parser parser) {
+		if (!sourcepos && parser.hasDefaultInlineParser() && PlainText.isPlain(input)) {
+			StringBuilder sb = new StringBuilder(input.length() + 16);
+			try {
+				PlainText.appendHtml(input, softbreak, sb);
+			} catch (IOException e) {
+				throw new CommonMarkParserException("Can't write output", e);
 			}
-			Iterator<Node> iterator = stack.peek();
-			if (iterator != null && iterator.hasNext()) {
-				current = iterator.next();
-			} else if (iterator == null) {
-				finished = true;
-				break;
-			} else {
-				stack.pop();
-				Node node = nodeStack.pop();
-				Renderer renderer = closingTagRenderers.get(node.getClass());
-				if (renderer != null) renderer.render(node);
-				current = null;
+			return sb.toString();
+		}
+		return render(parser.parse(input));
+	}
+	
+	/*
+	 * Same for UTF-8 input and output. Plain prose goes from bytes to
+	 * bytes without being decoded and encoded again. Other input is
+	 * decoded for parsing, and its HTML is encoded as it is written
+	 * instead of being built as a String first.
+	 */
+	public byte[] render(byte[] input, Parser parser) {
+		Utf8ChannelOutput out = new Utf8ChannelOutput(input.length + (input.length >>> 3) + 16);
+		render(input, parser, out);
+		return out.toByteArray();
+	}
+	
+	/*
+	 * Renders UTF-8 input to channel through buffer, as
+	 * render(Node, WritableByteChannel, ByteBuffer) does.
+	 */
+	public void render(byte[] input, Parser parser, WritableByteChannel channel, ByteBuffer buffer) {
+		render(input, parser, new Utf8ChannelOutput(channel, buffer));
+	}
+	
+	private void render(byte[] input, Parser parser, Utf8ChannelOutput out) {
+		Utf8Bytes utf8 = new Utf8Bytes(input);
+		if (!sourcepos && parser.hasDefaultInlineParser() && PlainText.isPlain(utf8)) {
+			try {
+				PlainText.appendHtml(utf8, softbreak, out);
+				out.finish();
+			} catch (IOException e) {
+				throw new CommonMarkParserException("Can't write output", e);
 			}
+			return;
 		}
-		return sb.toString();
+		render(parser.parse(input), out);
+	}
+	
+	public void render(Node ast, Appendable out) {
+		if (ast == null) return;
+		RenderSink sink = new RenderSink(new RenderContext(this), out);
+		NodeEvents.walk(ast, sink);
+		sink.writeOut();
+	}
+	
+	public ParseEventHandler sink(Appendable out) {
+		return new RenderSink(new RenderContext(this), out);
+	}
+	
+	/*
+	 * Renders as UTF-8 into buffer, which is drained to channel whenever
+	 * it fills and at the end. Each top level block is escaped into a
+	 * reused builder and encoded from there, a byte per ASCII char, so
+	 * neither the page String nor its getBytes copy is ever built. The
+	 * buffer may be a direct one kept across calls; its contents are
+	 * discarded. The channel has to be a blocking one.
+	 */
+	public void render(Node ast, WritableByteChannel channel, ByteBuffer buffer) {
+		render(ast, new Utf8ChannelOutput(channel, buffer));
+	}
+	
+	private void render(Node ast, Utf8ChannelOutput out) {
+		if (ast == null) return;
+		RenderSink sink = new RenderSink(new RenderContext(this), out);
+		NodeEvents.walk(ast, sink);
+		sink.writeOut();
+		sink.finish();
+	}
+	
+	public ParseEventHandler sink(WritableByteChannel channel, ByteBuffer buffer) {
+		return new RenderSink(new RenderContext(this), new Utf8ChannelOutput(channel, buffer));
+	}
+	
+	private void writeOut(RenderContext ctx, Appendable out) throws IOException {
+		if (ctx.sb.length() == 0) return;
+		out.append(ctx.sb);
+		ctx.sb.setLength(0);
+		if (ctx.flush && out instanceof Flushable)
+			((Flushable) out).flush();
 	}
 	
 	private String esc(String str) {
 		StringBuilder sb = new StringBuilder();
-		for (int i=0; i < str.length(); i++) {
+		esc(str, sb);
+		return sb.toString();
+	}
+	
+	private void esc(CharSequence str, StringBuilder sb) {
+		int length = str.length();
+		for (int i=0; i < length; i++) {
 			char c = str.charAt(i);
 			switch (c) {
 				case '&' :
@@ -179,41 +362,45 @@ public class HtmlRenderer {
 					break;
 			}
 		}
-		return sb.toString();
 	}
 	
-	private void inlineText(Node node) {
-		String str = ((InlineTextNode) node).literal();
-		sb.append(esc(str));
-		lastOut = str;
+	private void inlineText(RenderContext ctx, Node node) {
+		CharSequence str = ((InlineTextNode) node).literalSequence();
+		esc(str, ctx.sb);
+		ctx.lastOut = str;
 	}
 	
-	private void softBreak(Node node) {
-		sb.append(softbreak);
-		lastOut = softbreak;
+	private void softBreak(RenderContext ctx, Node node) {
+		ctx.sb.append(ctx.softbreak);
+		ctx.lastOut = ctx.softbreak;
 	}
 	
-	private void cr() {
-		if (!"\n".equals(lastOut)) {
-			sb.append('\n');
-			lastOut = "\n";
+	private void cr(RenderContext ctx) {
+		if (!(ctx.lastOut.length() == 1 && ctx.lastOut.charAt(0) == '\n')) {
+			ctx.sb.append('\n');
+			ctx.lastOut = "\n";
 		}
 	}
 	
-	private void addTag(String tag, Map<String,String> attr, boolean selfclosing) {
-		if (disableTags > 0) return;
-		sb.append('<').append(tag);
+	private Map<String,String> attr(RenderContext ctx, Node node) {
+		if (!ctx.attr.isEmpty()) return ctx.attr;
+		return node.hasAttr() ? node.attr() : null;
+	}
+	
+	private void addTag(RenderContext ctx, String tag, Map<String,String> attr, boolean selfclosing) {
+		if (ctx.disableTags > 0) return;
+		ctx.sb.append('<').append(tag);
 		if (attr != null)
 			attr.forEach((key, value) ->
-				sb.append(' ').append(key).append("=\"").append(value).append('"'));
-		if (selfclosing) sb.append(" /");
-		sb.append('>');
-		lastOut = ">";
+				ctx.sb.append(' ').append(key).append("=\"").append(value).append('"'));
+		if (selfclosing) ctx.sb.append(" /");
+		ctx.sb.append('>');
+		ctx.lastOut = ">";
 	}
 	
-	private void lineBreak(Node node) {
-		addTag("br", attr.isEmpty() ? node.attr() : attr, true);
-		cr();
+	private void lineBreak(RenderContext ctx, Node node) {
+		addTag(ctx, "br", attr(ctx, node), true);
+		cr(ctx);
 	}
 	
 	private boolean potentiallyUnsafe(String url) {
@@ -228,192 +415,192 @@ public class HtmlRenderer {
 			url.startsWith("data:image/webp"));
 	}
 	
-	private void openLink(Node node) {
+	private void openLink(RenderContext ctx, Node node) {
 		String reference = ((InlineLinkNode) node).reference();
 		String title = ((InlineLinkNode) node).title();
-		if (!(safe && potentiallyUnsafe(reference)))
-			attr.put("href", esc(reference));
+		if (!(ctx.safe && potentiallyUnsafe(reference)))
+			ctx.attr.put("href", esc(reference));
 		if (!title.isEmpty())
-			attr.put("title", esc(title));
-		if (!attr.isEmpty()) attr.putAll(node.attr());
-		addTag("a", attr.isEmpty() ? node.attr() : attr, false);
+			ctx.attr.put("title", esc(title));
+		if (!ctx.attr.isEmpty() && node.hasAttr()) ctx.attr.putAll(node.attr());
+		addTag(ctx, "a", attr(ctx, node), false);
 	}
 	
-	private void closeLink(Node node) {
-		addTag("/a", null, false);
+	private void closeLink(RenderContext ctx, Node node) {
+		addTag(ctx, "/a", null, false);
 	}
 	
-	private void openImage(Node node) {
+	private void openImage(RenderContext ctx, Node node) {
 		String reference = ((InlineImageNode) node).reference();
-		if (disableTags == 0) {
-			if (safe && potentiallyUnsafe(reference))
-				sb.append("<img src=\"\" alt=\"");
+		if (ctx.disableTags == 0) {
+			if (ctx.safe && potentiallyUnsafe(reference))
+				ctx.sb.append("<img src=\"\" alt=\"");
 			else
-				sb.append("<img src=\"").append(esc(reference)).append("\" alt=\"");
-			lastOut = "\"";
+				ctx.sb.append("<img src=\"").append(esc(reference)).append("\" alt=\"");
+			ctx.lastOut = "\"";
 		}
-		disableTags++;
+		ctx.disableTags++;
 	}
 	
-	private void closeImage(Node node) {
-		disableTags--;
+	private void closeImage(RenderContext ctx, Node node) {
+		ctx.disableTags--;
 		String title = ((InlineImageNode) node).title();
-		if (this.disableTags == 0) {
+		if (ctx.disableTags == 0) {
 			if (!title.isEmpty())
-				sb.append("\" title=\"").append(esc(title));
-			Map<String,String> attr = this.attr.isEmpty() ? node.attr() : this.attr;
-			if (attr.isEmpty()) {
-				sb.append("\" />");
+				ctx.sb.append("\" title=\"").append(esc(title));
+			Map<String,String> attr = attr(ctx, node);
+			if (attr == null || attr.isEmpty()) {
+				ctx.sb.append("\" />");
 			} else {
-				sb.append("\" ");
+				ctx.sb.append("\" ");
 				attr.forEach((key, value) ->
-					sb.append(' ').append(key).append("=\"").append(value).append('"'));
-				sb.append(" />");
+					ctx.sb.append(' ').append(key).append("=\"").append(value).append('"'));
+				ctx.sb.append(" />");
 			}
-			lastOut = "\" />";
+			ctx.lastOut = "\" />";
 		}
 	}
 	
-	private void openEmphasis(Node node) {
-		addTag("em", attr.isEmpty() ? node.attr() : attr, false);
+	private void openEmphasis(RenderContext ctx, Node node) {
+		addTag(ctx, "em", attr(ctx, node), false);
 	}
 	
-	private void closeEmphasis(Node node) {
-		addTag("/em", null, false);
+	private void closeEmphasis(RenderContext ctx, Node node) {
+		addTag(ctx, "/em", null, false);
 	}
 
-	private void openStrongEmphasis(Node node) {
-		addTag("strong", attr.isEmpty() ? node.attr() : attr, false);
+	private void openStrongEmphasis(RenderContext ctx, Node node) {
+		addTag(ctx, "strong", attr(ctx, node), false);
 	}
 	
-	private void closeStrongEmphasis(Node node) {
-		addTag("/strong", null, false);
+	private void closeStrongEmphasis(RenderContext ctx, Node node) {
+		addTag(ctx, "/strong", null, false);
 	}
 	
-	private void inlineCode(Node node) {
-		String str = ((InlineCodeNode) node).literal();
-		addTag("code", attr.isEmpty() ? node.attr() : attr, false);
-		sb.append(esc(str));
-		addTag("/code", null, false);
+	private void inlineCode(RenderContext ctx, Node node) {
+		CharSequence str = ((InlineCodeNode) node).literalSequence();
+		addTag(ctx, "code", attr(ctx, node), false);
+		esc(str, ctx.sb);
+		addTag(ctx, "/code", null, false);
 	}
 	
-	private void inlineHtml(Node node) {
-		if (safe)
-			sb.append("<!-- raw HTML omitted -->");
+	private void inlineHtml(RenderContext ctx, Node node) {
+		if (ctx.safe)
+			ctx.sb.append("<!-- raw HTML omitted -->");
 		else
-			sb.append(((InlineHtmlNode) node).literal());
-		lastOut = ">";
+			ctx.sb.append(((InlineHtmlNode) node).literalSequence());
+		ctx.lastOut = ">";
 	}
 	
-	private void openParagraph(Node node) {
+	private void openParagraph(RenderContext ctx, Node node) {
 		Node grandparent = node.parent().parent();
 		if (grandparent != null &&
 			(grandparent instanceof ListBlockNode) &&
 			((ListBlockNode) grandparent).tight())
 			return;
-		cr();
-		addTag("p", attr.isEmpty() ? node.attr() : attr, false);
+		cr(ctx);
+		addTag(ctx, "p", attr(ctx, node), false);
 	}
 	
-	private void closeParagraph(Node node) {
+	private void closeParagraph(RenderContext ctx, Node node) {
 		Node grandparent = node.parent().parent();
 		if (grandparent != null &&
 			(grandparent instanceof ListBlockNode) &&
 			((ListBlockNode) grandparent).tight())
 			return;
-		addTag("/p", null, false);
-		cr();
+		addTag(ctx, "/p", null, false);
+		cr(ctx);
 	}
 	
-	private void openHeading(Node node) {
+	private void openHeading(RenderContext ctx, Node node) {
 		String tagname = "h" + ((HeadingBlockNode) node).level();
-		cr();
-		addTag(tagname, attr.isEmpty() ? node.attr() : attr, false);
+		cr(ctx);
+		addTag(ctx, tagname, attr(ctx, node), false);
 	}
 	
-	private void closeHeading(Node node) {
+	private void closeHeading(RenderContext ctx, Node node) {
 		String tagname = "/h" + ((HeadingBlockNode) node).level();
-		addTag(tagname, null, false);
-		cr();
+		addTag(ctx, tagname, null, false);
+		cr(ctx);
 	}
 	
-	private void codeBlock(Node node) {
+	private void codeBlock(RenderContext ctx, Node node) {
 		CodeBlockNode cNode = (CodeBlockNode) node;
 		String info = cNode.info();
 		if (!info.isEmpty()) {
-			StringBuilder sb = new StringBuilder();
+			StringBuilder language = new StringBuilder();
 			int length = info.length();
 			char c;
 			for (int i = 0; i < length; i++) {
 				c = info.charAt(i);
 				if (" \t\n\u000B\f\r".indexOf(c) >= 0) break;
-				sb.append(c);
+				language.append(c);
 			}
-			if (sb.length() > 0)
-				attr.put("class", "language-" + esc(sb.toString()));
+			if (language.length() > 0)
+				ctx.attr.put("class", "language-" + esc(language.toString()));
 		}
-		if (!attr.isEmpty()) attr.putAll(cNode.attr());
-		cr();
-		addTag("pre", null, false);
-		addTag("code", attr.isEmpty() ? node.attr() : attr, false);
-		sb.append(esc(cNode.literal()));
-		addTag("/code", null, false);
-		addTag("/pre", null, false);
-		cr();
+		if (!ctx.attr.isEmpty() && cNode.hasAttr()) ctx.attr.putAll(cNode.attr());
+		cr(ctx);
+		addTag(ctx, "pre", null, false);
+		addTag(ctx, "code", attr(ctx, node), false);
+		esc(cNode.literalSequence(), ctx.sb);
+		addTag(ctx, "/code", null, false);
+		addTag(ctx, "/pre", null, false);
+		cr(ctx);
 	}
 
-	private void thematicBreak(Node node) {
-		cr();
-		addTag("hr", attr.isEmpty() ? node.attr() : attr, true);
-		cr();
+	private void thematicBreak(RenderContext ctx, Node node) {
+		cr(ctx);
+		addTag(ctx, "hr", attr(ctx, node), true);
+		cr(ctx);
 	}
 
-	private void openBlockQuote(Node node) {
-		cr();
-		addTag("blockquote", attr.isEmpty() ? node.attr() : attr, false);
-		cr();
+	private void openBlockQuote(RenderContext ctx, Node node) {
+		cr(ctx);
+		addTag(ctx, "blockquote", attr(ctx, node), false);
+		cr(ctx);
 	}
 	
-	private void closeBlockQuote(Node node) {
-		cr();
-		addTag("/blockquote", null, false);
-		cr();
+	private void closeBlockQuote(RenderContext ctx, Node node) {
+		cr(ctx);
+		addTag(ctx, "/blockquote", null, false);
+		cr(ctx);
 	}
 	
-	private void openList(Node node) {
+	private void openList(RenderContext ctx, Node node) {
 		ListBlockNode lNode = (ListBlockNode) node;
 		String tagname = lNode.isOrdered() ? "ol" : "ul";
 		if (lNode.isOrdered() && lNode.start() != 1)
-			attr.put("start", String.valueOf(lNode.start()));
-		if (!attr.isEmpty()) attr.putAll(lNode.attr());
-		cr();
-		addTag(tagname, attr.isEmpty() ? node.attr() : attr, false);
-		cr();
+			ctx.attr.put("start", String.valueOf(lNode.start()));
+		if (!ctx.attr.isEmpty() && lNode.hasAttr()) ctx.attr.putAll(lNode.attr());
+		cr(ctx);
+		addTag(ctx, tagname, attr(ctx, node), false);
+		cr(ctx);
 	}
 	
-	private void closeList(Node node) {
+	private void closeList(RenderContext ctx, Node node) {
 		String tagname = ((ListBlockNode) node).isOrdered() ? "/ol" : "/ul";
-		cr();
-		addTag(tagname, null, false);
-		cr();
+		cr(ctx);
+		addTag(ctx, tagname, null, false);
+		cr(ctx);
 	}
 	
-	private void openItem(Node node) {
-		addTag("li", attr.isEmpty() ? node.attr() : attr, false);
+	private void openItem(RenderContext ctx, Node node) {
+		addTag(ctx, "li", attr(ctx, node), false);
 	}
 	
-	private void closeItem(Node node) {
-		addTag("/li", null, false);
-		cr();
+	private void closeItem(RenderContext ctx, Node node) {
+		addTag(ctx, "/li", null, false);
+		cr(ctx);
 	}
 	
-	private void htmlBlock(Node node) {
-		cr();
-		if (safe)
-			sb.append("<!-- raw HTML omitted -->");
+	private void htmlBlock(RenderContext ctx, Node node) {
+		cr(ctx);
+		if (ctx.safe)
+			ctx.sb.append("<!-- raw HTML omitted -->");
 		else
-			sb.append(((HtmlBlockNode) node).literal());
-		lastOut = ">";
-		cr();
+			ctx.sb.append(((HtmlBlockNode) node).literalSequence());
+		ctx.lastOut = ">";
+		cr(ctx);
 	}
 }
@@ -0,0 +1,258 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import nikoladasm.commonmark.nodes.BlockNode;
+import nikoladasm.commonmark.nodes.Node;
+
+/*
+ * Keeps a parsed document up to date with line range edits. An edit
+ * reparses the top level blocks from the last one starting before the
+ * edit up to the first old block which starts again as a top level
+ * block after the edited lines, and splices the result into the tree.
+ * Both bounds have to be restart lines, where the parser has no open
+ * block left, in the old and in the edited document. The whole
+ * document is parsed again when the reparsed range defines different
+ * link references.
+ */
+public class IncrementalParser {
+
+	private final Parser parser;
+	private final Parser referenceParser;
+	private final List<String> lines = new ArrayList<>();
+	private Map<String,Link> refmap;
+	private Node document;
+	private int reparsedLines;
+	private boolean fullParse;
+	
+	public IncrementalParser() {
+		this(Parser::getInstance);
+	}
+	
+	public IncrementalParser(Supplier<Parser> factory) {
+		this.parser = factory.get();
+		this.referenceParser = factory.get();
+	}
+	
+	public Node parse(String input) {
+		lines.clear();
+		lines.addAll(lines(input));
+		return parse();
+	}
+	
+	/*
+	 * Replaces the lines from startLine to endLine, both inclusive and
+	 * starting with 1, by the lines of text. Inserts the lines before
+	 * startLine when endLine is startLine-1, removes the range when text
+	 * is empty. Returns the updated document.
+	 */
+	public Node edit(int startLine, int endLine, String text) {
+		if (document == null)
+			throw new IllegalStateException("No document parsed");
+		if (startLine < 1 || startLine > lines.size()+1 ||
+			endLine < startLine-1 || endLine > lines.size())
+			throw new IllegalArgumentException("Invalid line range " + startLine + "-" + endLine);
+		List<String> added = lines(text);
+		int delta = added.size() - (endLine-startLine+1);
+		int count = lines.size()+delta;
+		Node first = null;
+		for (Node block = document.firstChild();
+			block != null && startLine(block) < startLine; block = block.next())
+			if (isRestartLine(startLine(block)))
+				first = block;
+		int regionStart = (first == null) ? 1 : startLine(first);
+		Node sync = (first == null) ? document.firstChild() : first;
+		parser.references(null);
+		parser.firstLine(regionStart);
+		parser.start();
+		int line = regionStart;
+		for (; line <= count; line++) {
+			parser.feed(line(line, startLine, added, delta));
+			parser.feed("\n");
+			if (line < startLine+added.size()) continue;
+			int oldLine = line-delta;
+			while (sync != null && startLine(sync) < oldLine)
+				sync = sync.next();
+			Node last = parser.document().lastChild();
+			String previous = (line == 1) ? null : line(line-1, startLine, added, delta);
+			if (sync != null && startLine(sync) == oldLine &&
+				last != null && startLine(last) == line &&
+				isRestartLine(oldLine) && isRestartLine(previous, lines.get(oldLine-1))) {
+				last.unlink();
+				break;
+			}
+		}
+		if (line > count) {
+			sync = null;
+			parser.close();
+		}
+		int oldRegionEnd = (sync == null) ? lines.size() : startLine(sync)-1;
+		Map<String,Link> definitions = definitions(regionStart, oldRegionEnd);
+		lines.subList(startLine-1, endLine).clear();
+		lines.addAll(startLine-1, added);
+		if (!sameReferences(parser.refmap(), definitions))
+			return parse();
+		reparsedLines = line-regionStart;
+		fullParse = false;
+		parser.refmap().putAll(refmap);
+		Node old = (first == null) ? document.firstChild() : first;
+		while (old != sync) {
+			Node next = old.next();
+			old.unlink();
+			old = next;
+		}
+		Node block;
+		while ((block = parser.document().firstChild()) != null) {
+			parser.processInlines(block);
+			if (sync == null)
+				document.appendChild(block);
+			else
+				sync.insertBefore(block);
+		}
+		if (delta != 0)
+			for (Node moved = sync; moved != null; moved = moved.next())
+				shiftLines(moved, delta);
+		((BlockNode) document).endLine(lines.size());
+		return document;
+	}
+	
+	public Node document() {
+		return document;
+	}
+	
+	public int lineCount() {
+		return lines.size();
+	}
+	
+	public String text() {
+		StringBuilder sb = new StringBuilder();
+		lines.forEach(line -> sb.append(line).append('\n'));
+		return sb.toString();
+	}
+	
+	/* Number of lines parsed by the last parse or edit. */
+	public int reparsedLines() {
+		return reparsedLines;
+	}
+	
+	/* Whether the last parse or edit parsed the whole document. */
+	public boolean isFullParse() {
+		return fullParse;
+	}
+	
+	private Node parse() {
+		parser.references(null);
+		parser.firstLine(1);
+		document = parser.parse(text());
+		refmap = new HashMap<>(parser.refmap());
+		reparsedLines = lines.size();
+		fullParse = true;
+		return document;
+	}
+	
+	/* Line of the edited document while lines still holds the old one. */
+	private String line(int line, int startLine, List<String> added, int delta) {
+		if (line < startLine)
+			return lines.get(line-1);
+		if (line < startLine+added.size())
+			return added.get(line-startLine);
+		return lines.get(line-1-delta);
+	}
+	
+	/* Whether an old top level block starting at the line starts from a fresh parser state. */
+	private boolean isRestartLine(int line) {
+		return isRestartLine(line == 1 ? null : lines.get(line-2), lines.get(line-1));
+	}
+	
+	/*
+	 * A line which isn't indented and follows a blank one ends every
+	 * open block but a list or a fence, so when it starts a top level
+	 * block it is read as by a fresh parser, as the splits of
+	 * Parser.parseParallel are. An indented line may be read otherwise
+	 * after a list.
+	 */
+	private static boolean isRestartLine(String previous, String line) {
+		if (previous == null) return true;
+		for (int i = 0; i < previous.length(); i++) {
+			char c = previous.charAt(i);
+			if (c != ' ' && c != '\t') return false;
+		}
+		return !line.isEmpty() && line.charAt(0) != ' ' && line.charAt(0) != '\t';
+	}
+	
+	/* Definitions made by the old lines, which are only block parsed. */
+	private Map<String,Link> definitions(int from, int to) {
+		referenceParser.references(null);
+		referenceParser.start();
+		for (int line = from; line <= to; line++) {
+			referenceParser.feed(lines.get(line-1));
+			referenceParser.feed("\n");
+		}
+		referenceParser.close();
+		return referenceParser.refmap();
+	}
+	
+	private static boolean sameReferences(Map<String,Link> a, Map<String,Link> b) {
+		if (a.size() != b.size()) return false;
+		for (Map.Entry<String,Link> entry : a.entrySet()) {
+			Link link = b.get(entry.getKey());
+			if (link == null ||
+				!Objects.equals(link.reference, entry.getValue().reference) ||
+				!Objects.equals(link.title, entry.getValue().title))
+				return false;
+		}
+		return true;
+	}
+	
+	private static void shiftLines(Node node, int delta) {
+		((BlockNode) node).shiftLines(delta);
+		for (Node child = node.firstChild(); child != null; child = child.next())
+			if (child instanceof BlockNode)
+				shiftLines(child, delta);
+	}
+	
+	static int startLine(Node block) {
+		return ((BlockNode) block).startLine();
+	}
+	
+	/* Splits text into lines as BufferedReader.readLine does. */
+	static List<String> lines(String text) {
+		List<String> lines = new ArrayList<>();
+		int length = text.length();
+		int begin = 0;
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c != '\n' && c != '\r') continue;
+			lines.add(text.substring(begin, i));
+			if (c == '\r' && i+1 < length && text.charAt(i+1) == '\n')
+				i++;
+			begin = i+1;
+		}
+		if (begin < length)
+			lines.add(text.substring(begin));
+		return lines;
+	}
+}
@@ -26,7 +26,31 @@ import nikoladasm.commonmark.nodes.*;
 public interface InlineParser {
 	void whitespaseCharFunc(Function<Character,Boolean> func);
 	Map<String,Link> refmap();
-	void recreateStringBuilders();
+	
+	/* Makes refmap() hold the references; the default copies them. */
+	default void refmap(Map<String,Link> refmap) {
+		Map<String,Link> own = refmap();
+		if (own == refmap) return;
+		own.clear();
+		own.putAll(refmap);
+	}
+	
+	/* Calls recreateStringBuilders() by default, which older implementations override. */
+	default void resetStringBuilders() {
+		recreateStringBuilders();
+	}
+	
+	/* Former name of resetStringBuilders(), only called through its default. */
+	@Deprecated
+	default void recreateStringBuilders() {
+	}
+	
+	/* Drops the state of the previous document. */
+	default void reset() {
+		refmap().clear();
+		resetStringBuilders();
+	}
+	
 	boolean isWhitespase(char c);
 	String unescapeString(String str);
 	void parseInline(BlockNode root);
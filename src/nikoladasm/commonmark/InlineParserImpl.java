@@ -18,9 +18,13 @@
 
 package nikoladasm.commonmark;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -34,15 +38,11 @@ public class InlineParserImpl implements InlineParser {
 	private static final String ASCII_PUNCTUATION = "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~";
 	private static final Function<Character,Boolean> DEFAULT_WHITESPACE_CHAR_FUNC =
 		c -> WHITESPACE_CHARACTERS.indexOf(c) >= 0;
+	private static final String INLINE_SPECIAL_CHARACTERS = "\\&`<[]!*_\n";
 
 	public static final String CDATA_LEAD = "CDATA[";
 	public static final String CDATA_TRAIL = "]]>";
 
-	@FunctionalInterface
-	private static interface InlineParserHandler {
-		void handle();
-	}
-	
 	protected static enum State {
 		UNKNOWN_CHAR,
 		MAYBE_LEFT_BACKTICK_STRING,
@@ -83,25 +83,27 @@ public class InlineParserImpl implements InlineParser {
 		public boolean processEntity;
 	}
 	
-	private static String unicodeTrim(String str) {
+	private static boolean isUnicodeWhitespace(int cp) {
+		return Character.isWhitespace(cp) || cp == 0xA0 || cp == 0x2007 || cp == 0x202F;
+	}
+	
+	private static int unicodeTrimBegin(CharSequence str) {
 		int length = str.length();
-		if (length == 0) return str;
 		int beginPos = 0;
-		for (int i = 1; i <= length; i++) {
-			int cp = str.codePointAt(i-1);
-			if (!Character.isWhitespace(cp) &&
-				cp != 0xA0 && cp != 0x2007 && cp != 0x202F) break;
-			beginPos = i;
-		}
-		if (beginPos >= length) return "";
-		int endPos = length;
-		for (int i = length-1; i >= beginPos; i--) {
-			endPos = i+1;
-			int cp = str.codePointAt(i);
-			if (!Character.isWhitespace(cp) &&
-				cp != 0xA0 && cp != 0x2007 && cp != 0x202F) break;
-		}
-		return str.substring(beginPos, endPos);
+		while (beginPos < length && isUnicodeWhitespace(Character.codePointAt(str, beginPos)))
+			beginPos++;
+		return beginPos;
+	}
+	
+	private static int unicodeTrimEnd(CharSequence str, int beginPos) {
+		int endPos = str.length();
+		while (endPos > beginPos && isUnicodeWhitespace(Character.codePointAt(str, endPos-1)))
+			endPos--;
+		return endPos;
+	}
+	
+	private static boolean isPlainInlineChar(char c) {
+		return c > '`' ? true : INLINE_SPECIAL_CHARACTERS.indexOf(c) < 0;
 	}
 	
 	private static String normalizeWhitespace(String str, Function<Character,Boolean> whitespaseCharFunc) {
@@ -151,6 +153,10 @@ public class InlineParserImpl implements InlineParser {
 	private boolean currentEscapedChar;
 	private int pos;
 	private StringBuilder text = new StringBuilder();
+	private String textSource;
+	private int textSourceOffset;
+	private int textBegin = -1;
+	private int textEnd;
 	private int recoveryTextPos;
 	private char previousChar;
 	private boolean previousEscapedChar;
@@ -188,6 +194,20 @@ public class InlineParserImpl implements InlineParser {
 	private boolean notQuotedAttributeValue;
 	private boolean processPreviousChar;
 	private Node opener;
+	private Deque<Node> brackets = new ArrayDeque<>();
+	/* text nodes grown by appends or prepends, finished after parsing */
+	private List<InlineTextNode> grownTexts = new ArrayList<>();
+	private int lastBracketIndex;
+	private int linkOpenerIndex;
+	private int linkTitleBeginPos;
+	private int[] unclosedLinkTitlePos = new int[3];
+	private int codeSpanBodyPos;
+	private int backtickRunsPos;
+	private Map<Integer,Integer> lastBacktickRuns = new HashMap<>();
+	private int htmlBodyPos;
+	private int unclosedProcessingInstructionPos;
+	private int unclosedDeclarationPos;
+	private int unclosedCdataPos;
 	private boolean isLinkReferenceBegin;
 	private boolean possiblyLinkReferenceInBraces;
 	private boolean notLinkReferenceInBraces;
@@ -215,51 +235,133 @@ public class InlineParserImpl implements InlineParser {
 	private Function<Character,Boolean> whitespaseCharFunc;
 	private Map<String,Link> linkReferenceMap;
 
-	private Map<State,InlineParserHandler> handlersMap;
-	private Map<State,InlineParserHandler> rHandlersMap;
-	private Map<State,InlineParserHandler> otHandlersMap;
-
 	public InlineParserImpl(CharReader reader) {
 		whitespaseCharFunc = DEFAULT_WHITESPACE_CHAR_FUNC;
 		this.reader = reader;
 		linkReferenceMap = new HashMap<>();
-		handlersMap = new HashMap<>();
-		handlersMap.put(UNKNOWN_CHAR, this::unknownCharActionHandler);
-		handlersMap.put(MAYBE_LEFT_BACKTICK_STRING, this::maybeLeftBacktickStringActionHandler);
-		handlersMap.put(MAYBE_CODE_SPAN_BODY, this::maybeCodeSpanBodyActionHandler);
-		handlersMap.put(MAYBE_RIGHT_BACKTICK_STRING, this::maybeRightBacktickStringActionHandler);
-		handlersMap.put(MAYBE_AUTOLINK_OR_HTML_TAG, this::maybeAutolinkOrHtmlTagActionHandler);
-		handlersMap.put(MAYBE_EMAIL_AUTOLINK, this::maybeEmailAutolinkActionHandler);
-		handlersMap.put(MAYBE_EMAIL_AUTOLINK_AFTER_AT_OR_DOT, this::maybeEmailAutolinkAfterAtOrDotActionHandler);
-		handlersMap.put(MAYBE_EMAIL_AUTOLINK_OR_CLOSING_TAG, this::maybeEmailAutolinkOrClosingTagActionHandler);
-		handlersMap.put(MAYBE_CLOSING_TAG, this::maybeClosingTagActionHandler);
-		handlersMap.put(MAYBE_EMAIL_AUTOLINK_OR_TAGS_CDATA_DECLARATION_COMMENT, this::maybeEmailAutolinkOrTagsCdataDeclarationCommentActionHandler);
-		handlersMap.put(MAYBE_CDATA_TAG_LEAD, this::maybeCdataTagLeadActionHandler);
-		handlersMap.put(MAYBE_CDATA_TAG_BODY, this::maybeCdataTagBodyActionHandler);
-		handlersMap.put(MAYBE_CDATA_TAG_TRAIL, this::maybeCdataTagTrailActionHandler);
-		handlersMap.put(MAYBE_EMAIL_AUTOLINK_OR_COMMENT_TAG, this::maybeEmailAutolinkOrCommentTagActionHandler);
-		handlersMap.put(MAYBE_EMAIL_AUTOLINK_OR_DECLARATION_TAG, this::maybeEmailAutolinkOrDeclarationTagActionHandler);
-		handlersMap.put(MAYBE_EMAIL_AUTOLINK_OR_PROCESSING_INSTRUCTION_TAG, this::maybeEmailAutolinkOrProcessingInstructionTagActionHandler);
-		handlersMap.put(MAYBE_AUTOLINK_OR_OPEN_TAG, this::maybeAutolinkOrOpenTagActionHandler);
-		handlersMap.put(MAYBE_OPEN_TAG, this::maybeOpenTagActionHandler);
-		handlersMap.put(MAYBE_TAG_ATTRIBUTES_OR_END_OPEN_TAG, this::maybeTagAttributesOrEndOpenTagActionHandler);
-		handlersMap.put(MAYBE_TAG_ATTRIBUTES, this::maybeTagAttributesActionHandler);
-		handlersMap.put(MAYBE_ATTRIBUTE_VALUE, this::maybeAttributeValueActionHandler);
-		handlersMap.put(MAYBE_LINK_REFERENHCE, this::maybeLinkReferenceActionHandler);
-		handlersMap.put(MAYBE_LINK_TITLE, this::maybeLinkTitleActionHandler);
-		handlersMap.put(MAYBE_LINK_LABEL, this::maybeLinkLabelActionHandler);
-		rHandlersMap = new HashMap<>();
-		rHandlersMap.put(UNKNOWN_CHAR, this::rUnknownCharActionHandler);
-		rHandlersMap.put(MAYBE_LINK_LABEL, this::rMaybeLinkLabelActionHandler);
-		rHandlersMap.put(MAYBE_LINK_REFERENCE_COLON, this::rMaybeLinkReferenceColonActionHandler);
-		rHandlersMap.put(MAYBE_LINK_REFERENHCE, this::rMaybeLinkReferenceActionHandler);
-		rHandlersMap.put(MAYBE_LINK_TITLE, this::rMaybeLinkTitleActionHandler);
-		otHandlersMap = new HashMap<>();
-		otHandlersMap.put(UNKNOWN_CHAR, this::otUnknownCharActionHandler);
-		otHandlersMap.put(MAYBE_OPEN_TAG, this::maybeOpenTagActionHandler);
-		otHandlersMap.put(MAYBE_TAG_ATTRIBUTES_OR_END_OPEN_TAG, this::otMaybeTagAttributesOrEndOpenTagActionHandler);
-		otHandlersMap.put(MAYBE_TAG_ATTRIBUTES, this::maybeTagAttributesActionHandler);
-		otHandlersMap.put(MAYBE_ATTRIBUTE_VALUE, this::maybeAttributeValueActionHandler);
+	}
+	
+	private void handle() {
+		switch (state) {
+			case UNKNOWN_CHAR:
+				unknownCharActionHandler();
+				break;
+			case MAYBE_LEFT_BACKTICK_STRING:
+				maybeLeftBacktickStringActionHandler();
+				break;
+			case MAYBE_CODE_SPAN_BODY:
+				maybeCodeSpanBodyActionHandler();
+				break;
+			case MAYBE_RIGHT_BACKTICK_STRING:
+				maybeRightBacktickStringActionHandler();
+				break;
+			case MAYBE_AUTOLINK_OR_HTML_TAG:
+				maybeAutolinkOrHtmlTagActionHandler();
+				break;
+			case MAYBE_EMAIL_AUTOLINK:
+				maybeEmailAutolinkActionHandler();
+				break;
+			case MAYBE_EMAIL_AUTOLINK_AFTER_AT_OR_DOT:
+				maybeEmailAutolinkAfterAtOrDotActionHandler();
+				break;
+			case MAYBE_EMAIL_AUTOLINK_OR_CLOSING_TAG:
+				maybeEmailAutolinkOrClosingTagActionHandler();
+				break;
+			case MAYBE_CLOSING_TAG:
+				maybeClosingTagActionHandler();
+				break;
+			case MAYBE_EMAIL_AUTOLINK_OR_TAGS_CDATA_DECLARATION_COMMENT:
+				maybeEmailAutolinkOrTagsCdataDeclarationCommentActionHandler();
+				break;
+			case MAYBE_CDATA_TAG_LEAD:
+				maybeCdataTagLeadActionHandler();
+				break;
+			case MAYBE_CDATA_TAG_BODY:
+				maybeCdataTagBodyActionHandler();
+				break;
+			case MAYBE_CDATA_TAG_TRAIL:
+				maybeCdataTagTrailActionHandler();
+				break;
+			case MAYBE_EMAIL_AUTOLINK_OR_COMMENT_TAG:
+				maybeEmailAutolinkOrCommentTagActionHandler();
+				break;
+			case MAYBE_EMAIL_AUTOLINK_OR_DECLARATION_TAG:
+				maybeEmailAutolinkOrDeclarationTagActionHandler();
+				break;
+			case MAYBE_EMAIL_AUTOLINK_OR_PROCESSING_INSTRUCTION_TAG:
+				maybeEmailAutolinkOrProcessingInstructionTagActionHandler();
+				break;
+			case MAYBE_AUTOLINK_OR_OPEN_TAG:
+				maybeAutolinkOrOpenTagActionHandler();
+				break;
+			case MAYBE_OPEN_TAG:
+				maybeOpenTagActionHandler();
+				break;
+			case MAYBE_TAG_ATTRIBUTES_OR_END_OPEN_TAG:
+				maybeTagAttributesOrEndOpenTagActionHandler();
+				break;
+			case MAYBE_TAG_ATTRIBUTES:
+				maybeTagAttributesActionHandler();
+				break;
+			case MAYBE_ATTRIBUTE_VALUE:
+				maybeAttributeValueActionHandler();
+				break;
+			case MAYBE_LINK_REFERENHCE:
+				maybeLinkReferenceActionHandler();
+				break;
+			case MAYBE_LINK_TITLE:
+				maybeLinkTitleActionHandler();
+				break;
+			case MAYBE_LINK_LABEL:
+				maybeLinkLabelActionHandler();
+				break;
+			default:
+				throw new CommonMarkParserException("Unexpected state " + state);
+		}
+	}
+	
+	private void rHandle() {
+		switch (state) {
+			case UNKNOWN_CHAR:
+				rUnknownCharActionHandler();
+				break;
+			case MAYBE_LINK_LABEL:
+				rMaybeLinkLabelActionHandler();
+				break;
+			case MAYBE_LINK_REFERENCE_COLON:
+				rMaybeLinkReferenceColonActionHandler();
+				break;
+			case MAYBE_LINK_REFERENHCE:
+				rMaybeLinkReferenceActionHandler();
+				break;
+			case MAYBE_LINK_TITLE:
+				rMaybeLinkTitleActionHandler();
+				break;
+			default:
+				throw new CommonMarkParserException("Unexpected state " + state);
+		}
+	}
+	
+	private void otHandle() {
+		switch (state) {
+			case UNKNOWN_CHAR:
+				otUnknownCharActionHandler();
+				break;
+			case MAYBE_OPEN_TAG:
+				maybeOpenTagActionHandler();
+				break;
+			case MAYBE_TAG_ATTRIBUTES_OR_END_OPEN_TAG:
+				otMaybeTagAttributesOrEndOpenTagActionHandler();
+				break;
+			case MAYBE_TAG_ATTRIBUTES:
+				maybeTagAttributesActionHandler();
+				break;
+			case MAYBE_ATTRIBUTE_VALUE:
+				maybeAttributeValueActionHandler();
+				break;
+			default:
+				throw new CommonMarkParserException("Unexpected state " + state);
+		}
 	}
 	
 	@Override
@@ -267,16 +369,48 @@ public class InlineParserImpl implements InlineParser {
 		whitespaseCharFunc = func;
 	}
 	
+	Function<Character,Boolean> whitespaseCharFunc() {
+		return whitespaseCharFunc;
+	}
+	
 	@Override
 	public Map<String,Link> refmap() {
 		return linkReferenceMap;
 	}
 	
+	@Override
+	public void refmap(Map<String,Link> refmap) {
+		linkReferenceMap = refmap;
+	}
+	
+	@Override
+	public void resetStringBuilders() {
+		text = Parser.reuse(text);
+		sb = Parser.reuse(sb);
+		tmp = Parser.reuse(tmp);
+	}
+	
+	@Deprecated
 	@Override
 	public void recreateStringBuilders() {
-		text = new StringBuilder();
-		sb = new StringBuilder();
-		tmp = new StringBuilder();
+		resetStringBuilders();
+	}
+	
+	@Override
+	public void reset() {
+		linkReferenceMap.clear();
+		resetStringBuilders();
+		reader.inputString("");
+		inputString = null;
+		textSource = null;
+		current = null;
+		opener = null;
+		brackets.clear();
+		lastBacktickRuns.clear();
+		grownTexts.clear();
+		stack = null;
+		linkReference = null;
+		reflabel = null;
 	}
 	
 	@Override
@@ -323,43 +457,137 @@ public class InlineParserImpl implements InlineParser {
 		reader.unescape(true);
 		reader.processEntity(true);
 		while (reader.hasNext())
-			tmp.append(reader.next());
+			if (reader.nextPlainRun(tmp) == 0)
+				tmp.append(reader.next());
 		return tmp.toString();
 	}
 
+	private boolean canAppendPlainRun() {
+		return state == UNKNOWN_CHAR &&
+			!processPreviousChar && !finalSpaces &&
+			!lineBreak && !softBreak && !removeLeadingSpaces &&
+			(previousEscapedChar || (previousChar != 0 && isPlainInlineChar(previousChar)));
+	}
+	
+	private void appendPlainRun() {
+		int begin = reader.pos();
+		int end = begin + reader.plainRunLength();
+		int runEnd = begin;
+		char ch;
+		for (int i = begin; i < end; i++) {
+			ch = inputString.charAt(i);
+			if (ch == ' ') continue;
+			if (!isPlainInlineChar(ch)) break;
+			runEnd = i+1;
+		}
+		if (runEnd == begin) return;
+		text.append(inputString, begin, runEnd);
+		textAppended(begin, runEnd);
+		reader.pos(runEnd);
+		previousChar = inputString.charAt(runEnd-1);
+		previousEscapedChar = false;
+		recoveryTextPos = runEnd;
+		recoveryPreviousChar = previousChar;
+		recoveryPreviousEscapedChar = false;
+	}
+	
+	/*
+	 * Notes that text now ends with inputString[begin, end). While text
+	 * is a single range of the input its node gets a slice instead of a
+	 * copy.
+	 */
+	private void textAppended(int begin, int end) {
+		int length = text.length();
+		if (textBegin >= 0 && textEnd == begin && length == end - textBegin) {
+			textEnd = end;
+		} else if (length == end - begin) {
+			textBegin = begin;
+			textEnd = end;
+		} else {
+			textBegin = -1;
+		}
+	}
+	
+	/*
+	 * Same for chars that may have been decoded or may come from
+	 * elsewhere, they are compared with the input first.
+	 */
+	private void maybeTextAppended(int begin, int end) {
+		int offset = text.length() - (end - begin);
+		if (begin < 0 || end > length || offset < 0) {
+			textBegin = -1;
+			return;
+		}
+		for (int i = begin; i < end; i++)
+			if (inputString.charAt(i) != text.charAt(offset + i - begin)) {
+				textBegin = -1;
+				return;
+			}
+		textAppended(begin, end);
+	}
+	
+	private SourceSlice slice(int begin, int end) {
+		return new SourceSlice(textSource, textSourceOffset + begin, textSourceOffset + end);
+	}
+	
 	private void processPreviousText() {
 		if (text.length() > 0) {
-			Node last = current.childs().peekLast();
-			if (last instanceof InlineTextNode)
-				((InlineTextNode) last)
-					.literal(((InlineTextNode) last).literal()+text.toString());
-			else {
+			CharSequence literal = (textBegin >= 0 && text.length() == textEnd - textBegin) ?
+				slice(textBegin, textEnd) : text;
+			Node last = current.lastChild();
+			if (last instanceof InlineTextNode) {
+				((InlineTextNode) last).appendLiteral(literal);
+				grownTexts.add((InlineTextNode) last);
+			} else {
 				InlineTextNode t = new InlineTextNode();
-				t.literal(text.toString());
-				current.childs().addLast(t);
+				t.literal(literal);
+				current.appendChild(t);
 			}
 			text.setLength(0);
+			textBegin = -1;
 		}
 	}
 	
 	private Node findOpener() {
-		Node current = this.current;
-		do {
-			if (current instanceof InlineBangNode)
+		Node current = brackets.peekLast();
+		if (current instanceof InlineBangNode)
+			return current;
+		if (current instanceof InlineOpenBracketNode) {
+			InlineOpenBracketNode bracket = (InlineOpenBracketNode) current;
+			if (bracket.index() < linkOpenerIndex)
+				bracket.deactivate();
+			if (bracket.isActive())
 				return current;
-			if (current instanceof InlineOpenBracketNode) {
-				if (((InlineOpenBracketNode) current).isActive())
-					return current;
-				else {
-					replaceNodeByTextNode(current, "[");
-					return null;
-				}
-			}
-			current = current.parent();
-		} while (current != null && current instanceof InlineNode);
+			replaceNodeByTextNode(current, "[");
+		}
 		return null;
 	}
 	
+	private void addBracketNode(Node node, int index) {
+		current.appendChild(node);
+		current = node;
+		brackets.addLast(node);
+		lastBracketIndex = index;
+	}
+	
+	private void removeBracketNode(Node node) {
+		if (brackets.peekLast() == node)
+			brackets.removeLast();
+		else
+			brackets.removeFirstOccurrence(node);
+	}
+	
+	private void replaceOpenerByTextNode() {
+		if (opener instanceof InlineOpenBracketNode)
+			replaceNodeByTextNode(opener, "[");
+		else
+			replaceNodeByTextNode(opener, "![");
+	}
+	
+	private static int linkTitleMarkIndex(char mark) {
+		return (mark == '"') ? 0 : (mark == '\'') ? 1 : 2;
+	}
+	
 	private boolean isSpace(char c) {
 		return c == '\t' || c == '\r' ||
 			c == '\n' || c == '\f' ||
@@ -382,12 +610,8 @@ public class InlineParserImpl implements InlineParser {
 	}
 	
 	private void deactivateInlineOpenBracketNode() {
-		Node current = opener.parent();
-		while (current != null && current instanceof InlineNode) {
-			if (current instanceof InlineOpenBracketNode)
-				((InlineOpenBracketNode) current).deactivate();
-			current = current.parent();
-		}
+		// brackets before the opener are deactivated lazily by findOpener()
+		linkOpenerIndex = ((InlineOpenBracketNode) opener).index();
 	}
 	
 	private void insertLinkOrImageNode(String reference, String title) {
@@ -405,65 +629,70 @@ public class InlineParserImpl implements InlineParser {
 			i.title(title);
 			n = i;
 		}
+		removeBracketNode(opener);
 		Node parent = opener.parent();
-		opener.childs().forEach(node -> {
-			if (node.parent() != null)
-				node.parent(n);
-		});
-		n.childs().addAll(opener.childs());
-		parent.childs().removeLast();
-		parent.childs().addLast(n);
+		appendChilds(opener, n);
+		opener.replaceWith(n);
 		current = parent;
 		removeOpenBracketOrBangNodes(n);
 		processEmphasis(n);
 	}
 	
 	private void replaceNodeByTextNode(Node node, String text) {
-		Node parent = node.parent();
-		if (current == node) current = parent;
-		parent.childs().removeLast();
-		Node last = parent.childs().peekLast();
-		Node first = node.childs().peekFirst();
-		if (last != null &&
-			(last instanceof InlineTextNode))
-			if (first != null &&
-				(first instanceof InlineTextNode)) {
-				((InlineTextNode) last)
-				.literal(((InlineTextNode) last)
-					.literal()+text+((InlineTextNode) first).literal());
-				node.childs().removeFirst();
-			} else {
-				((InlineTextNode) last)
-					.literal(((InlineTextNode) last).literal()+text);
+		if (node instanceof InlineOpenBracketNode || node instanceof InlineBangNode)
+			removeBracketNode(node);
+		if (current == node) current = node.parent();
+		Node prev = node.prev();
+		Node first = node.firstChild();
+		if (prev instanceof InlineTextNode) {
+			((InlineTextNode) prev).appendLiteral(text);
+			if (first instanceof InlineTextNode) {
+				((InlineTextNode) prev).appendLiteral(((InlineTextNode) first).literalSequence());
+				first.unlink();
 			}
-		else if (first != null &&
-			(first instanceof InlineTextNode))
-			((InlineTextNode) first)
-			.literal(text+((InlineTextNode) first).literal());
-		else {
+			grownTexts.add((InlineTextNode) prev);
+		} else if (first instanceof InlineTextNode) {
+			((InlineTextNode) first).prependLiteral(text);
+			grownTexts.add((InlineTextNode) first);
+		} else {
 			InlineTextNode t = new InlineTextNode();
 			t.literal(text);
-			parent.childs().addLast(t);
+			node.insertBefore(t);
 		}
-		node.childs().forEach(cNode -> {
-			if (cNode.parent() != null)
-				cNode.parent(parent);
-		});
-		parent.childs().addAll(node.childs());
+		unwrapNode(node);
+	}
+	
+	private static void unwrapNode(Node node) {
+		Node child;
+		while ((child = node.lastChild()) != null)
+			node.insertAfter(child);
+		node.unlink();
+	}
+	
+	private static void appendChilds(Node from, Node to) {
+		Node child;
+		while ((child = from.firstChild()) != null)
+			to.appendChild(child);
 	}
 	
 	private void removeOpenBracketOrBangNodes(Node current) {
 		while (current != null) {
+			Node next = current.lastChild();
 			if (current instanceof InlineOpenBracketNode)
 				replaceNodeByTextNode(current, "[");
 			else if (current instanceof InlineBangNode)
 				replaceNodeByTextNode(current, "![");
-			current = current.childs().peekLast();
+			current = next;
+			if (!(current instanceof InlineOpenBracketNode ||
+				current instanceof InlineBangNode ||
+				current instanceof InlineEmphasisDelimiterNode))
+				break;
 		}
 	}
 	
 	private void removeEmphasisNode(Node current) {
 		while (current != null) {
+			Node next = current.lastChild();
 			if (current instanceof InlineEmphasisDelimiterNode) {
 				tmp.setLength(0);
 				InlineEmphasisDelimiterNode node =
@@ -473,21 +702,32 @@ public class InlineParserImpl implements InlineParser {
 					tmp.append(delimiter);
 				replaceNodeByTextNode(current, tmp.toString());
 			}
-			current = current.childs().peekLast();
+			current = next;
+			if (!(current instanceof InlineEmphasisDelimiterNode))
+				break;
 		}
 	}
 	
 	private void processEmphasis(Node current) {
 		Node root = current;
 		InlineEmphasisDelimiterNode closer;
+		// delimiters before the openers bottom can't open for this delimiter
+		int asteriskOpenersBottom = -1;
+		int underscoreOpenersBottom = -1;
 		while (current != null) {
 			if ((current instanceof InlineEmphasisDelimiterNode) &&
 				(closer = (InlineEmphasisDelimiterNode) current).canClose()) {
 				char delimiter = closer.delimiter();
+				int openersBottom = (delimiter == '*') ?
+					asteriskOpenersBottom : underscoreOpenersBottom;
 				Node potentialOpener = closer.parent();
 				InlineEmphasisDelimiterNode opener;
 				boolean found = false;
+				boolean matched = false;
 				while (potentialOpener != null && potentialOpener != root) {
+					if ((potentialOpener instanceof InlineEmphasisDelimiterNode) &&
+						((InlineEmphasisDelimiterNode) potentialOpener).index() < openersBottom)
+						break;
 					if ((potentialOpener instanceof InlineEmphasisDelimiterNode) &&
 						(opener = (InlineEmphasisDelimiterNode) potentialOpener).canOpen() &&
 						opener.delimiter() == delimiter) {
@@ -498,6 +738,7 @@ public class InlineParserImpl implements InlineParser {
 						} else {
 							useDelims = closer.numdelims() % 2 == 0 ? 2 : 1;
 						}
+						matched = true;
 						Node e;
 						if (useDelims == 1) {
 							e = new InlineEmphasisNode();
@@ -508,47 +749,35 @@ public class InlineParserImpl implements InlineParser {
 							opener.decBy2Numdelims();
 							closer.decBy2Numdelims();
 						}
-						closer.parent().childs().removeLast();
-						opener.childs().forEach(node -> {
-							if (node.parent() != null)
-								node.parent(e);
-						});
-						e.childs().addAll(opener.childs());
-						opener.childs().clear();
-						opener.childs().addFirst(e);
-						opener.childs().addLast(closer);
-						closer.parent(opener);
+						closer.unlink();
+						appendChilds(opener, e);
+						opener.appendChild(e);
+						opener.appendChild(closer);
 						removeEmphasisNode(e);
 						if (opener.numdelims() == 0) {
-							Node parent = opener.parent();
-							parent.childs().removeLast();
-							opener.childs().forEach(node -> {
-								if (node.parent() != null)
-									node.parent(parent);
-							});
-							parent.childs().addAll(opener.childs());
+							unwrapNode(opener);
 						}
 						found = true;
 						if (closer.numdelims() == 0) {
 							found = false;
-							Node parent = closer.parent();
-							parent.childs().removeLast();
-							closer.childs().forEach(node -> {
-								if (node.parent() != null)
-									node.parent(parent);
-							});
-							parent.childs().addAll(closer.childs());
-							current = parent;
-							if (current == opener && opener.numdelims() == 0)
-								current = opener.parent();
+							current = closer.parent();
+							unwrapNode(closer);
 						}
 						break;
 					}
 					potentialOpener = potentialOpener.parent();
 				}
 				if (found) continue;
+				if (!matched) {
+					if (delimiter == '*')
+						asteriskOpenersBottom = closer.index();
+					else
+						underscoreOpenersBottom = closer.index();
+				}
 			}
-			current = current.childs().peekLast();
+			current = current.lastChild();
+			if (!(current instanceof InlineEmphasisDelimiterNode))
+				break;
 		}
 		removeEmphasisNode(root);
 	}
@@ -593,12 +822,13 @@ public class InlineParserImpl implements InlineParser {
 					n = new InlineSoftBreakNode();
 					softBreak = false;
 				}
-				current.childs().addLast(n);
+				current.appendChild(n);
 				finalSpaces = false;
 			}
 			sb.setLength(0);
 		} else if (finalSpaces && c != '\n' && c != ' ') {
 			text.append(sb);
+			maybeTextAppended(pos-sb.length(), pos);
 			finalSpaces = false;
 			sb.setLength(0);
 		}
@@ -628,10 +858,15 @@ public class InlineParserImpl implements InlineParser {
 					end = pos-1;
 				else
 					end = pos;
-				String rawreflabel = inputString.substring(begin, end);
-				String reflabel = normalizeReference(rawreflabel, whitespaseCharFunc);
-				Link link;
-				if (!reflabel.isEmpty() && (link = linkReferenceMap.get(reflabel)) != null) {
+				Link link = null;
+				// a label with a nested bracket can't match a reference definition
+				if (lastBracketIndex <= begin) {
+					String rawreflabel = inputString.substring(begin, end);
+					String reflabel = normalizeReference(rawreflabel, whitespaseCharFunc);
+					if (!reflabel.isEmpty())
+						link = linkReferenceMap.get(reflabel);
+				}
+				if (link != null) {
 					insertLinkOrImageNode(link.reference, link.title);
 				} else {
 					text.append(']');
@@ -640,17 +875,15 @@ public class InlineParserImpl implements InlineParser {
 					else
 						replaceNodeByTextNode(opener, "![");
 				}
-				if (closeBracket &&
-					previousCloseBracket &&
-					!reader.hasNext()) {
-					processPreviousChar = false;
-					reader.repeat();
-					return;
-				}
-				processPreviousChar = false;
 			} else {
 				text.append(']');
-				processPreviousChar = false;
+			}
+			processPreviousChar = false;
+			if (closeBracket &&
+				previousCloseBracket &&
+				!reader.hasNext()) {
+				reader.repeat();
+				return;
 			}
 		}
 		if (c == '`' && !currentEscapedChar &&
@@ -692,13 +925,11 @@ public class InlineParserImpl implements InlineParser {
 			if (previousBang) {
 				InlineBangNode n = new InlineBangNode(current);
 				n.index(reader.pos());
-				current.childs().addLast(n);
-				current = n;
+				addBracketNode(n, n.index());
 			} else {
 				InlineOpenBracketNode n = new InlineOpenBracketNode(current);
 				n.index(reader.pos());
-				current.childs().addLast(n);
-				current = n;
+				addBracketNode(n, n.index());
 			}
 		} else if ((c == '*' || c == '_') && !currentEscapedChar) {
 			InlineEmphasisDelimiterNode e;
@@ -724,7 +955,8 @@ public class InlineParserImpl implements InlineParser {
 				if (!(beforeIsSpace = isSpace(prevChar)))
 					beforeIsPunctuation = isPunctuation(prevChar);
 				e = new InlineEmphasisDelimiterNode(current, c, beforeIsSpace, beforeIsPunctuation);
-				current.childs().addLast(e);
+				e.index(reader.pos());
+				current.appendChild(e);
 				current = e;
 			}
 			if (!reader.hasNext())
@@ -741,7 +973,7 @@ public class InlineParserImpl implements InlineParser {
 			if (previousBackslash) {
 				processPreviousText();
 				Node n = new InlineLineBreakNode();
-				current.childs().addLast(n);
+				current.appendChild(n);
 				removeLeadingSpaces = true;
 			} else if (finalSpaces && sb.length() > 1) {
 				lineBreak = true;
@@ -752,8 +984,10 @@ public class InlineParserImpl implements InlineParser {
 			if (processPreviousChar)
 				text.append(previousChar);
 			if (!bang && !closeBracket && !backslash &&
-				!finalSpaces && !lineBreak && !softBreak && !removeLeadingSpaces)
+				!finalSpaces && !lineBreak && !softBreak && !removeLeadingSpaces) {
 				text.append(c);
+				maybeTextAppended(pos, pos+1);
+			}
 		}
 		recoveryTextPos = reader.pos();
 		recoveryPreviousChar = c;
@@ -767,10 +1001,52 @@ public class InlineParserImpl implements InlineParser {
 			leftDelimiterRunLength++;
 		} else {
 			state = MAYBE_CODE_SPAN_BODY;
+			codeSpanBodyPos = pos;
+			if (backtickRunsPos >= 0 && pos >= backtickRunsPos) {
+				Integer run = lastBacktickRuns.get(leftDelimiterRunLength);
+				if (run == null || run < pos) {
+					// no closing backtick string follows
+					reader.pos(length);
+					return;
+				}
+			}
 		}
 		sb.append(c);
 	}
 	
+	/*
+	 * Returns the code span body as a slice of the input if normalizing
+	 * its whitespace leaves it as it is, null otherwise.
+	 */
+	private SourceSlice codeSpanSlice(int bodyLength) {
+		if (bodyLength <= 0 || codeSpanBodyPos + bodyLength > length) return null;
+		boolean space = true;
+		for (int i = 0; i < bodyLength; i++) {
+			char ch = sb.charAt(leftDelimiterRunLength + i);
+			if (ch == '\n' || ch != inputString.charAt(codeSpanBodyPos + i)) return null;
+			boolean whitespace = whitespaseCharFunc.apply(ch);
+			if (whitespace && space) return null;
+			space = whitespace;
+		}
+		return space ? null : slice(codeSpanBodyPos, codeSpanBodyPos + bodyLength);
+	}
+	
+	private void indexBacktickRuns(int from) {
+		lastBacktickRuns.clear();
+		int i = from;
+		while (i < length) {
+			if (inputString.charAt(i) != '`') {
+				i++;
+				continue;
+			}
+			int begin = i;
+			while (i < length && inputString.charAt(i) == '`')
+				i++;
+			lastBacktickRuns.put(i - begin, begin);
+		}
+		backtickRunsPos = from;
+	}
+	
 	private void maybeCodeSpanBodyActionHandler() {
 		if (c == '`') {
 			state = MAYBE_RIGHT_BACKTICK_STRING;
@@ -786,14 +1062,15 @@ public class InlineParserImpl implements InlineParser {
 	private void maybeRightBacktickStringActionHandler() {
 		if (c == '`' && reader.hasNext()) {
 			rightDelimiterRunLength++;
-		} else if (rightDelimiterRunLength == leftDelimiterRunLength ||
+		} else if ((rightDelimiterRunLength == leftDelimiterRunLength && c != '`') ||
 			(c == '`' && !reader.hasNext() && rightDelimiterRunLength+1 == leftDelimiterRunLength)) {
 			processPreviousText();
 			InlineCodeNode cb = new InlineCodeNode();
-			cb.literal(normalizeWhitespace(
+			CharSequence literal = codeSpanSlice(sb.length()-leftDelimiterRunLength-rightDelimiterRunLength);
+			cb.literal(literal != null ? literal : normalizeWhitespace(
 				sb.substring(leftDelimiterRunLength, sb.length()-rightDelimiterRunLength),
 				whitespaseCharFunc));
-			current.childs().addLast(cb);
+			current.appendChild(cb);
 			if (rightDelimiterRunLength == leftDelimiterRunLength) {
 				reader.repeat();
 				currentChar = previousChar;
@@ -823,6 +1100,7 @@ public class InlineParserImpl implements InlineParser {
 			state = MAYBE_EMAIL_AUTOLINK_OR_PROCESSING_INSTRUCTION_TAG;
 			charIndexAfterQstn = 0;
 			notEmailAutolink = false;
+			htmlBodyPos = -1;
 		} else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
 			state = MAYBE_AUTOLINK_OR_OPEN_TAG;
 			notEmailAutolink = false;
@@ -870,10 +1148,10 @@ public class InlineParserImpl implements InlineParser {
 				String reference = "mailto:" + s;
 				l.reference(reference);
 				l.title("");
-				current.childs().addLast(l);
+				current.appendChild(l);
 				InlineTextNode t = new InlineTextNode();
 				t.literal(s);
-				l.childs().addLast(t);
+				l.appendChild(t);
 				state = UNKNOWN_CHAR;
 				reader.unescape(true);
 				return;
@@ -923,7 +1201,7 @@ public class InlineParserImpl implements InlineParser {
 			InlineHtmlNode h = new InlineHtmlNode();
 			sb.append(c);
 			h.literal(sb.toString());
-			current.childs().addLast(h);
+			current.appendChild(h);
 			state = UNKNOWN_CHAR;
 			reader.unescape(true);
 		} else if (!whitespaseCharFunc.apply(c)) {
@@ -955,6 +1233,7 @@ public class InlineParserImpl implements InlineParser {
 			notEmailAutolink = false;
 			notDeclarationTag = false;
 			declWhitespace = false;
+			htmlBodyPos = -1;
 		} else {
 			state = RECOVERY;
 			return;
@@ -969,8 +1248,14 @@ public class InlineParserImpl implements InlineParser {
 			return;
 		}
 		cdataLeadIndex++;
-		if (cdataLeadIndex == 6)
+		if (cdataLeadIndex == 6) {
 			state = MAYBE_CDATA_TAG_BODY;
+			htmlBodyPos = reader.pos();
+			if (htmlBodyPos >= unclosedCdataPos) {
+				reader.pos(length);
+				return;
+			}
+		}
 		sb.append(c);
 	}
 	
@@ -991,7 +1276,7 @@ public class InlineParserImpl implements InlineParser {
 			InlineHtmlNode h = new InlineHtmlNode();
 			sb.append(c);
 			h.literal(sb.toString());
-			current.childs().addLast(h);
+			current.appendChild(h);
 			state = UNKNOWN_CHAR;
 			reader.unescape(true);
 			reader.processEntity(true);
@@ -1028,7 +1313,7 @@ public class InlineParserImpl implements InlineParser {
 			InlineHtmlNode h = new InlineHtmlNode();
 			sb.append(c);
 			h.literal(sb.toString());
-			current.childs().addLast(h);
+			current.appendChild(h);
 			state = UNKNOWN_CHAR;
 			reader.unescape(true);
 			return;
@@ -1046,6 +1331,13 @@ public class InlineParserImpl implements InlineParser {
 	}
 	
 	private void maybeEmailAutolinkOrDeclarationTagActionHandler() {
+		if (notEmailAutolink && declWhitespace && !notDeclarationTag) {
+			if (pos > unclosedDeclarationPos) {
+				reader.pos(length);
+				return;
+			}
+			if (htmlBodyPos < 0) htmlBodyPos = pos;
+		}
 		if (!((c >= '0' && c <= '9') ||
 			(c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') ||
 			"@.!#$%&'*+/=?^_`{|}~-".indexOf(c) >= 0))
@@ -1066,7 +1358,7 @@ public class InlineParserImpl implements InlineParser {
 			InlineHtmlNode h = new InlineHtmlNode();
 			sb.append(c);
 			h.literal(sb.toString());
-			current.childs().addLast(h);
+			current.appendChild(h);
 			state = UNKNOWN_CHAR;
 			reader.unescape(true);
 			return;
@@ -1078,6 +1370,13 @@ public class InlineParserImpl implements InlineParser {
 	}
 	
 	private void maybeEmailAutolinkOrProcessingInstructionTagActionHandler() {
+		if (notEmailAutolink) {
+			if (pos > unclosedProcessingInstructionPos) {
+				reader.pos(length);
+				return;
+			}
+			if (htmlBodyPos < 0) htmlBodyPos = pos;
+		}
 		if (!((c >= '0' && c <= '9') ||
 			(c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') ||
 			"@.!#$%&'*+/=?^_`{|}~-".indexOf(c) >= 0))
@@ -1093,7 +1392,7 @@ public class InlineParserImpl implements InlineParser {
 			InlineHtmlNode h = new InlineHtmlNode();
 			sb.append(c);
 			h.literal(sb.toString());
-			current.childs().addLast(h);
+			current.appendChild(h);
 			state = UNKNOWN_CHAR;
 			reader.unescape(true);
 			return;
@@ -1140,10 +1439,10 @@ public class InlineParserImpl implements InlineParser {
 			String reference = percentEncode(percentDecode(s));
 			l.reference(reference);
 			l.title("");
-			current.childs().addLast(l);
+			current.appendChild(l);
 			InlineTextNode t = new InlineTextNode();
 			t.literal(s);
-			l.childs().addLast(t);
+			l.appendChild(t);
 			state = UNKNOWN_CHAR;
 			reader.unescape(true);
 			return;
@@ -1190,7 +1489,7 @@ public class InlineParserImpl implements InlineParser {
 			InlineHtmlNode h = new InlineHtmlNode();
 			sb.append(c);
 			h.literal(sb.toString());
-			current.childs().addLast(h);
+			current.appendChild(h);
 			state = UNKNOWN_CHAR;
 			reader.unescape(true);
 			reader.processEntity(true);
@@ -1339,8 +1638,10 @@ public class InlineParserImpl implements InlineParser {
 			if (linkTitleMark == c && !currentEscapedChar)
 				isLinkTitleEnd = true;
 			if (linkTitleMark == 0 &&
-				(c == '\'' || c == '"' || c == '(') && !currentEscapedChar)
+				(c == '\'' || c == '"' || c == '(') && !currentEscapedChar) {
 				linkTitleMark = (c == '(') ? ')' : c;
+				linkTitleBeginPos = pos;
+			}
 		}
 		if (c == ')' && (!isLinkTitleBegin ||
 			(isLinkTitleBegin && prevIsLinkTitleEnd))) {
@@ -1349,7 +1650,9 @@ public class InlineParserImpl implements InlineParser {
 			state = UNKNOWN_CHAR;
 		} else if (isLinkTitleBegin &&
 			((prevIsLinkTitleEnd && !whitespaseCharFunc.apply(c)) ||
-			(!prevIsLinkTitleBegin && linkTitleMark == 0))) {
+			(!prevIsLinkTitleBegin && linkTitleMark == 0) ||
+			(!prevIsLinkTitleBegin &&
+			pos >= unclosedLinkTitlePos[linkTitleMarkIndex(linkTitleMark)]))) {
 			text.append("](");
 			state = RECOVERY;
 			sb.setLength(0);
@@ -1379,25 +1682,25 @@ public class InlineParserImpl implements InlineParser {
 			processPreviousText();
 			InlineOpenBracketNode n = new InlineOpenBracketNode(current);
 			n.index(recoveryTextPos);
-			current.childs().addLast(n);
-			current = n;
+			addBracketNode(n, n.index());
 			state = RECOVERY;
 			sb.setLength(0);
 			return;
 		} else if (c == ']' && !currentEscapedChar) {
-			String rawreflabel;
+			String rawreflabel = null;
 			if (sb.length() <= 0) {
 				int begin;
 				if (opener instanceof InlineOpenBracketNode)
 					begin = ((InlineOpenBracketNode) opener).index();
 				else
 					begin = ((InlineBangNode) opener).index();
-				rawreflabel = inputString.substring(begin, pos-2);
+				if (lastBracketIndex <= begin)
+					rawreflabel = inputString.substring(begin, pos-2);
 			} else {
 				rawreflabel = sb.toString();
 			}
-			String reflabel = normalizeReference(rawreflabel, whitespaseCharFunc);
-			Link link = linkReferenceMap.get(reflabel);
+			Link link = (rawreflabel == null) ? null :
+				linkReferenceMap.get(normalizeReference(rawreflabel, whitespaseCharFunc));
 			if (link == null) {
 				if (opener instanceof InlineOpenBracketNode)
 					replaceNodeByTextNode(opener, "[");
@@ -1407,8 +1710,7 @@ public class InlineParserImpl implements InlineParser {
 				processPreviousText();
 				InlineOpenBracketNode n = new InlineOpenBracketNode(current);
 				n.index(recoveryTextPos);
-				current.childs().addLast(n);
-				current = n;
+				addBracketNode(n, n.index());
 				state = RECOVERY;
 				sb.setLength(0);
 				return;
@@ -1424,10 +1726,21 @@ public class InlineParserImpl implements InlineParser {
 	
 	@Override
 	public void parseInline(BlockNode root) {
-		inputString = unicodeTrim(root.stringContent());
-		if (inputString.isEmpty()) return;
+		CharSequence content = root.stringContentSequence();
+		int begin = unicodeTrimBegin(content);
+		int end = unicodeTrimEnd(content, begin);
+		if (begin == end) return;
+		inputString = content.subSequence(begin, end).toString();
+		if (content instanceof SourceSlice) {
+			textSource = ((SourceSlice) content).source();
+			textSourceOffset = ((SourceSlice) content).start() + begin;
+		} else {
+			textSource = inputString;
+			textSourceOffset = 0;
+		}
 		state = UNKNOWN_CHAR;
 		text.setLength(0);
+		textBegin = -1;
 		sb.setLength(0);
 		current = root;
 		length = inputString.length();
@@ -1435,17 +1748,33 @@ public class InlineParserImpl implements InlineParser {
 		reader.unescape(true);
 		reader.processEntity(true);
 		stack = new LinkedList<>();
+		brackets.clear();
+		lastBracketIndex = -1;
+		linkOpenerIndex = -1;
+		Arrays.fill(unclosedLinkTitlePos, Integer.MAX_VALUE);
+		backtickRunsPos = -1;
+		lastBacktickRuns.clear();
+		unclosedProcessingInstructionPos = Integer.MAX_VALUE;
+		unclosedDeclarationPos = Integer.MAX_VALUE;
+		unclosedCdataPos = Integer.MAX_VALUE;
 		previousChar = 0;
 		previousEscapedChar = false;
 		processPreviousChar = false;
 		finalSpaces = false;
 		removeLeadingSpaces = false;
 		while (state != FINISH) {
+			if (canAppendPlainRun()) {
+				appendPlainRun();
+				if (!reader.hasNext()) {
+					processPreviousText();
+					break;
+				}
+			}
 			pos = reader.pos();
 			c = reader.next();
 			currentChar = c;
 			currentEscapedChar = reader.escaped();
-			handlersMap.get(state).handle();
+			handle();
 			if (state == RECOVERY) {
 				if (stack.isEmpty()) {
 					reader.pos(recoveryTextPos);
@@ -1471,8 +1800,8 @@ public class InlineParserImpl implements InlineParser {
 						previousEscapedChar = recoveryPreviousEscapedChar;
 						reader.unescape(true);
 						reader.processEntity(true);
+						recoverUnclosedInline();
 						state = UNKNOWN_CHAR;
-						text.append(sb.charAt(0));
 					} else {
 						text.append(sb);
 						state = FINISH;
@@ -1486,6 +1815,50 @@ public class InlineParserImpl implements InlineParser {
 		}
 		removeOpenBracketOrBangNodes(root);
 		processEmphasis(root);
+		for (InlineTextNode t : grownTexts)
+			t.finishLiteral();
+		grownTexts.clear();
+		textSource = null;
+	}
+	
+	private void recoverUnclosedInline() {
+		// nothing closes the construct before the end of input, so later
+		// constructs of the same kind past its body fail at once
+		if (state == MAYBE_LINK_TITLE && isLinkTitleBegin && !isLinkTitleEnd) {
+			int index = linkTitleMarkIndex(linkTitleMark);
+			if (linkTitleBeginPos < unclosedLinkTitlePos[index])
+				unclosedLinkTitlePos[index] = linkTitleBeginPos;
+		} else if ((state == MAYBE_CODE_SPAN_BODY ||
+			state == MAYBE_RIGHT_BACKTICK_STRING) &&
+			(backtickRunsPos < 0 || codeSpanBodyPos < backtickRunsPos)) {
+			indexBacktickRuns(codeSpanBodyPos);
+		} else if (state == MAYBE_EMAIL_AUTOLINK_OR_PROCESSING_INSTRUCTION_TAG &&
+			htmlBodyPos >= 0 && htmlBodyPos < unclosedProcessingInstructionPos) {
+			unclosedProcessingInstructionPos = htmlBodyPos;
+		} else if (state == MAYBE_EMAIL_AUTOLINK_OR_DECLARATION_TAG &&
+			htmlBodyPos >= 0 && htmlBodyPos < unclosedDeclarationPos) {
+			unclosedDeclarationPos = htmlBodyPos;
+		} else if ((state == MAYBE_CDATA_TAG_BODY || state == MAYBE_CDATA_TAG_TRAIL) &&
+			htmlBodyPos < unclosedCdataPos) {
+			unclosedCdataPos = htmlBodyPos;
+		}
+		switch (state) {
+			case MAYBE_LINK_TITLE:
+			case MAYBE_LINK_REFERENHCE:
+				text.append("](");
+				replaceOpenerByTextNode();
+				break;
+			case MAYBE_LINK_LABEL:
+				replaceOpenerByTextNode();
+				text.append("]");
+				processPreviousText();
+				InlineOpenBracketNode n = new InlineOpenBracketNode(current);
+				n.index(recoveryTextPos);
+				addBracketNode(n, n.index());
+				break;
+			default:
+				text.append(sb.charAt(0));
+		}
 	}
 	
 	private void rUnknownCharActionHandler() {
@@ -1656,7 +2029,7 @@ public class InlineParserImpl implements InlineParser {
 			pos = reader.pos();
 			c = reader.next();
 			currentEscapedChar = reader.escaped();
-			rHandlersMap.get(state).handle();
+			rHandle();
 			if (!reader.hasNext()) state = FINISH;
 		}
 		return hasReferenceDefs ? referenceDefEndPos : -1;
@@ -1708,7 +2081,7 @@ public class InlineParserImpl implements InlineParser {
 			c = reader.next();
 			if (c == 0) c = '\uFFFD';
 			currentChar = c;
-			otHandlersMap.get(state).handle();
+			otHandle();
 			if (state == RECOVERY) return false;
 			previousChar = currentChar;
 			if (!reader.hasNext() && state != FINISH) return false;
@@ -0,0 +1,124 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * UTF-8 file read through memory mapped windows. Line ends are found
+ * on the bytes and the file is decoded a run of whole lines at a time,
+ * when the parser gets to it, so the file is never copied to the heap
+ * as a whole. Bytes already in memory are read the same way, as one
+ * window.
+ */
+class MappedInput implements Closeable {
+
+	static final int CHUNK_SIZE = 1 << 16;
+	static final int WINDOW_SIZE = 1 << 26;
+	
+	private final FileChannel channel;
+	private final long size;
+	private final int windowSize;
+	private ByteBuffer window;
+	private long windowPos;
+	private long pos;
+	private byte[] bytes;
+
+	MappedInput(Path path) throws IOException {
+		this(path, WINDOW_SIZE);
+	}
+	
+	MappedInput(Path path, int windowSize) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		size = channel.size();
+		this.windowSize = windowSize;
+	}
+	
+	MappedInput(ByteBuffer input) {
+		channel = null;
+		window = input.slice();
+		size = window.limit();
+		windowSize = window.limit();
+	}
+	
+	/*
+	 * Decodes the lines of the next CHUNK_SIZE bytes, the last of them
+	 * up to its end. Returns null at the end of the file.
+	 */
+	String nextChunk() throws IOException {
+		if (pos >= size) return null;
+		long end = lineEnd(Math.min(pos + CHUNK_SIZE, size));
+		if (end - pos > Integer.MAX_VALUE)
+			throw new CommonMarkParserException("Line too long");
+		int length = (int) (end - pos);
+		map(pos, end);
+		int offset = (int) (pos - windowPos);
+		pos = end;
+		if (window.hasArray())
+			return new String(window.array(), window.arrayOffset() + offset, length, UTF_8);
+		if (bytes == null || bytes.length < length)
+			bytes = new byte[Math.max(length, CHUNK_SIZE)];
+		window.get(offset, bytes, 0, length);
+		return new String(bytes, 0, length, UTF_8);
+	}
+	
+	/*
+	 * Returns the position after the first line end at or after end-1.
+	 * A '\r' followed by '\n' isn't a line end, so a chunk never splits
+	 * a "\r\n" pair. UTF-8 sequences have no bytes below 0x80 inside,
+	 * so they aren't split either.
+	 */
+	private long lineEnd(long end) throws IOException {
+		if (end >= size) return size;
+		for (long i = end - 1; i < size; i++) {
+			byte b = byteAt(i);
+			if (b == '\n' || (b == '\r' && (i+1 == size || byteAt(i+1) != '\n')))
+				return i+1;
+		}
+		return size;
+	}
+	
+	private byte byteAt(long i) throws IOException {
+		if (window == null || i < windowPos || i >= windowPos + window.limit())
+			map(i, i+1);
+		return window.get((int) (i - windowPos));
+	}
+	
+	private void map(long begin, long end) throws IOException {
+		if (window != null && begin >= windowPos && end <= windowPos + window.limit())
+			return;
+		long length = Math.min(Math.max(end - begin, windowSize), size - begin);
+		window = channel.map(MapMode.READ_ONLY, begin, length);
+		windowPos = begin;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		window = null;
+		if (channel != null) channel.close();
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark;
+
+import nikoladasm.commonmark.nodes.BlockNode;
+import nikoladasm.commonmark.nodes.InlineNode;
+import nikoladasm.commonmark.nodes.Node;
+
+public final class NodeEvents {
+
+	private NodeEvents() {
+	}
+	
+	private static void enter(Node node, ParseEventHandler handler) {
+		if (node instanceof BlockNode)
+			handler.enterBlock((BlockNode) node);
+		else
+			handler.enterInline((InlineNode) node);
+	}
+	
+	private static void exit(Node node, ParseEventHandler handler) {
+		if (node instanceof BlockNode)
+			handler.exitBlock((BlockNode) node);
+		else
+			handler.exitInline((InlineNode) node);
+	}
+	
+	public static void walk(Node root, ParseEventHandler handler) {
+		Node current = root;
+		while (true) {
+			enter(current, handler);
+			Node child = current.firstChild();
+			if (child != null) {
+				current = child;
+				continue;
+			}
+			exit(current, handler);
+			while (current != root && current.next() == null) {
+				current = current.parent();
+				exit(current, handler);
+			}
+			if (current == root) break;
+			current = current.next();
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark;
+
+import nikoladasm.commonmark.nodes.BlockNode;
+import nikoladasm.commonmark.nodes.InlineNode;
+import nikoladasm.commonmark.nodes.Node;
+
+public class ParseEvent {
+
+	public static enum Type {
+		ENTER_BLOCK,
+		EXIT_BLOCK,
+		ENTER_INLINE,
+		EXIT_INLINE
+	}
+	
+	private final Type type;
+	private final Node node;
+	
+	public ParseEvent(Type type, Node node) {
+		this.type = type;
+		this.node = node;
+	}
+	
+	public Type type() {
+		return type;
+	}
+	
+	public Node node() {
+		return node;
+	}
+	
+	public boolean isEnter() {
+		return type == Type.ENTER_BLOCK || type == Type.ENTER_INLINE;
+	}
+	
+	public void dispatch(ParseEventHandler handler) {
+		switch (type) {
+			case ENTER_BLOCK :
+				handler.enterBlock((BlockNode) node);
+				break;
+			case EXIT_BLOCK :
+				handler.exitBlock((BlockNode) node);
+				break;
+			case ENTER_INLINE :
+				handler.enterInline((InlineNode) node);
+				break;
+			case EXIT_INLINE :
+				handler.exitInline((InlineNode) node);
+				break;
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return type + " " + node.getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark;
+
+import nikoladasm.commonmark.nodes.*;
+
+/*
+ * Receives a document as a sequence of events instead of a tree.
+ * Every node is entered and exited in document order, leaf nodes
+ * included. The node passed to an event is only valid until the
+ * matching exit event of its top level block: Parser releases each
+ * top level block after its events.
+ *
+ * By default enterInline() reports text, code spans, links and images
+ * to the shorthand methods, so simple extractors only override those.
+ */
+public interface ParseEventHandler {
+
+	default void enterBlock(BlockNode block) {
+	}
+	
+	default void exitBlock(BlockNode block) {
+	}
+	
+	default void enterInline(InlineNode inline) {
+		if (inline instanceof InlineTextNode)
+			text(((InlineTextNode) inline).literal());
+		else if (inline instanceof InlineCodeNode)
+			code(((InlineCodeNode) inline).literal());
+		else if (inline instanceof InlineLinkNode)
+			link(((InlineLinkNode) inline).reference(), ((InlineLinkNode) inline).title());
+		else if (inline instanceof InlineImageNode)
+			image(((InlineImageNode) inline).reference(), ((InlineImageNode) inline).title());
+	}
+	
+	default void exitInline(InlineNode inline) {
+	}
+	
+	default void text(String literal) {
+	}
+	
+	default void code(String literal) {
+	}
+	
+	default void link(String destination, String title) {
+	}
+	
+	default void image(String source, String title) {
+	}
+}
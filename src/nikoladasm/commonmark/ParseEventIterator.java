@@ -0,0 +1,115 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark;
+
+import static nikoladasm.commonmark.ParseEvent.Type.*;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import nikoladasm.commonmark.nodes.BlockNode;
+import nikoladasm.commonmark.nodes.Node;
+
+/*
+ * Walks each releasable top level block one event at a time and asks
+ * the parser for more lines only when the walk runs out. A block stays
+ * linked into the document until the event after its exit is pulled.
+ */
+class ParseEventIterator implements Iterator<ParseEvent> {
+
+	private final Parser parser;
+	private final Node root;
+	private Node block;
+	private Node node;
+	private boolean entering;
+	private boolean started;
+	private boolean moreLines = true;
+	private boolean finished;
+	private ParseEvent next;
+	
+	ParseEventIterator(Parser parser, Node root) {
+		this.parser = parser;
+		this.root = root;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		if (next == null)
+			next = advance();
+		return next != null;
+	}
+	
+	@Override
+	public ParseEvent next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		ParseEvent event = next;
+		next = null;
+		return event;
+	}
+	
+	private static ParseEvent enter(Node node) {
+		return new ParseEvent((node instanceof BlockNode) ? ENTER_BLOCK : ENTER_INLINE, node);
+	}
+	
+	private static ParseEvent exit(Node node) {
+		return new ParseEvent((node instanceof BlockNode) ? EXIT_BLOCK : EXIT_INLINE, node);
+	}
+	
+	private ParseEvent advance() {
+		if (!started) {
+			started = true;
+			return enter(root);
+		}
+		if (node == null) {
+			if (block != null) {
+				block.unlink();
+				block = null;
+			}
+			if (finished)
+				return null;
+			while ((block = parser.releasableBlock()) == null) {
+				if (!moreLines) {
+					finished = true;
+					return exit(root);
+				}
+				moreLines = parser.nextLine();
+			}
+			node = block;
+			entering = true;
+		}
+		Node current = node;
+		if (entering) {
+			Node child = current.firstChild();
+			if (child != null)
+				node = child;
+			else
+				entering = false;
+			return enter(current);
+		}
+		if (current == block) {
+			node = null;
+		} else if (current.next() != null) {
+			node = current.next();
+			entering = true;
+		} else {
+			node = current.parent();
+		}
+		return exit(current);
+	}
+}
@@ -21,17 +21,22 @@ package nikoladasm.commonmark;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
 
 import nikoladasm.commonmark.nodes.*;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static nikoladasm.commonmark.Parser.State.*;
 
 public class Parser {
@@ -98,16 +103,29 @@ public class Parser {
 		void handle(BlockNode node);
 	}
 	
+	static final int MAX_REUSED_CAPACITY = 8192;
+	
+	private static final Supplier<InlineParser> DEFAULT_INLINE_PARSER_FACTORY =
+		() -> new InlineParserImpl(new CharReaderImpl());
+	
 	public static Parser getInstance() {
-		return new Parser(new InlineParserImpl(new CharReaderImpl()));
+		return new Parser(DEFAULT_INLINE_PARSER_FACTORY.get());
 	}
 	
 	private InlineParser ip;
 	private BlockNode root;
+	private BufferedReader reader;
+	private String input;
+	private int inputPos;
+	private MappedInput mapped;
+	private boolean feeding;
+	private ParseEventHandler feedHandler;
+	private StringBuilder feedLine = new StringBuilder();
+	private boolean feedSkipLF;
 	private int lineNumber;
 	private BlockNode current;
 	private BlockNode oldCurrent;
-	private String line;
+	private CharSequence line;
 	private int length;
 	private int offset;
 	private int column;
@@ -166,6 +184,15 @@ public class Parser {
 	private Map<Class<? extends BlockNode>,BlockFinalizer> blockFinalizers;
 	private Map<State,BlockStartHandler> blockStartHandlers;
 	
+	private int parallelInlineThreshold = -1;
+	private int parallelBlockThreshold = -1;
+	private boolean forwardReferences = true;
+	private boolean deferredBlocks;
+	private Map<String,Link> references;
+	private int firstLine = 1;
+	private ForkJoinPool forkJoinPool;
+	private Supplier<InlineParser> inlineParserFactory = DEFAULT_INLINE_PARSER_FACTORY;
+	
 	public Parser(InlineParser ip) {
 		this.ip = ip;
 		initContinueHandlers();
@@ -215,37 +242,426 @@ public class Parser {
 		blockStartHandlers.put(LIST_ITEM_BLOCK, this::listItemBlockHandler);
 	}
 	
+	public int parallelInlineThreshold() {
+		return parallelInlineThreshold;
+	}
+	
+	public void parallelInlineThreshold(int parallelInlineThreshold) {
+		this.parallelInlineThreshold = parallelInlineThreshold;
+	}
+	
+	public int parallelBlockThreshold() {
+		return parallelBlockThreshold;
+	}
+	
+	public void parallelBlockThreshold(int parallelBlockThreshold) {
+		this.parallelBlockThreshold = parallelBlockThreshold;
+	}
+	
+	public ForkJoinPool forkJoinPool() {
+		return forkJoinPool == null ? ForkJoinPool.commonPool() : forkJoinPool;
+	}
+	
+	public void forkJoinPool(ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
+	
+	public boolean isForwardReferences() {
+		return forwardReferences;
+	}
+	
+	public void forwardReferences(boolean forwardReferences) {
+		this.forwardReferences = forwardReferences;
+	}
+	
+	public Supplier<InlineParser> inlineParserFactory() {
+		return inlineParserFactory;
+	}
+	
+	public void inlineParserFactory(Supplier<InlineParser> inlineParserFactory) {
+		this.inlineParserFactory = inlineParserFactory;
+	}
+	
+	public void reset() {
+		ip.reset();
+		sb = new StringBuilder();
+		root = null;
+		current = null;
+		oldCurrent = null;
+		lastMatched = null;
+		line = null;
+		reader = null;
+		input = null;
+		mapped = null;
+		feeding = false;
+		feedHandler = null;
+		feedLine = new StringBuilder();
+		htmlBlockType1TagsIterator = null;
+		htmlBlockType6TagsIterator = null;
+	}
+	
 	public Node parse(String input) {
-		return parse(new StringReader(input));
+		if (parallelBlockThreshold >= 0 && input.length() >= parallelBlockThreshold &&
+			hasWorkerInlineParsers())
+			return parseParallel(input);
+		if (hasDefaultInlineParser() && PlainText.isPlain(input))
+			return parsePlain(input);
+		begin(input);
+		while (nextLine());
+		processInlines(root);
+		return root;
 	}
 	
-	public Node parse(Reader reader) {
+	/*
+	 * Plain prose is only built without the inline parser when that
+	 * parser is the default one; a subclass or another implementation
+	 * always gets to see the text.
+	 */
+	boolean hasDefaultInlineParser() {
+		return ip.getClass() == InlineParserImpl.class;
+	}
+	
+	private Node parsePlain(String input) {
 		ip.refmap().clear();
-		ip.recreateStringBuilders();
-		sb = new StringBuilder();
-		root = new DocumentNode(0, 0);
-		BufferedReader bufferedReader;
+		if (references != null)
+			ip.refmap().putAll(references);
+		reader = null;
+		feeding = false;
+		feedHandler = null;
+		current = null;
+		root = PlainText.document(input, firstLine);
+		return root;
+	}
+	
+	public Node parse(Reader reader) {
+		begin(reader);
+		while (nextLine());
+		processInlines(root);
+		return root;
+	}
+	
+	/*
+	 * Parses UTF-8 input. Only the plain prose check and the line split
+	 * run on the bytes: block and inline syntax is scanned on chars,
+	 * decoded a run of lines at a time as for a file.
+	 */
+	public Node parse(byte[] input) {
+		if (hasDefaultInlineParser() && PlainText.isPlain(new Utf8Bytes(input)))
+			return parsePlain(new String(input, UTF_8));
+		begin(new MappedInput(ByteBuffer.wrap(input)));
+		while (nextLine());
+		processInlines(root);
+		return root;
+	}
+	
+	/*
+	 * Parses a UTF-8 file. The file is memory mapped and decoded a run of
+	 * lines at a time, instead of being read onto the heap as a whole.
+	 */
+	public Node parse(Path path) {
+		try (MappedInput mapped = new MappedInput(path)) {
+			begin(mapped);
+			while (nextLine());
+		} catch (IOException e) {
+			throw new CommonMarkParserException("Can't read input", e);
+		}
+		processInlines(root);
+		return root;
+	}
+	
+	public void parse(String input, ParseEventHandler handler) {
+		begin(input);
+		parse(handler);
+	}
+	
+	public void parse(Reader reader, ParseEventHandler handler) {
+		begin(reader);
+		parse(handler);
+	}
+	
+	public void parse(Path path, ParseEventHandler handler) {
+		try (MappedInput mapped = new MappedInput(path)) {
+			begin(mapped);
+			parse(handler);
+		} catch (IOException e) {
+			throw new CommonMarkParserException("Can't read input", e);
+		}
+	}
+	
+	private void parse(ParseEventHandler handler) {
+		handler.enterBlock(root);
+		boolean more;
+		do {
+			more = nextLine();
+			releaseBlocks(handler);
+		} while (more);
+		handler.exitBlock(root);
+		root = null;
+	}
+	
+	public void start() {
+		start(null);
+	}
+	
+	public void start(ParseEventHandler handler) {
+		begin();
+		feeding = true;
+		feedHandler = handler;
+		feedSkipLF = false;
+		feedLine.setLength(0);
+		if (handler != null)
+			handler.enterBlock(root);
+	}
+	
+	/*
+	 * Accepts the next chunk of input. Lines may be split across chunks
+	 * anywhere, even inside a surrogate pair, as a partial line is kept
+	 * until its terminator arrives.
+	 */
+	public void feed(CharSequence chunk) {
+		if (!feeding) start();
+		int length = chunk.length();
+		int begin = 0;
+		if (feedSkipLF && length > 0) {
+			if (chunk.charAt(0) == '\n') begin = 1;
+			feedSkipLF = false;
+		}
+		for (int i = begin; i < length; i++) {
+			char c = chunk.charAt(i);
+			if (c != '\n' && c != '\r') continue;
+			String line;
+			if (feedLine.length() == 0) {
+				line = chunk.subSequence(begin, i).toString();
+			} else {
+				feedLine.append(chunk, begin, i);
+				line = feedLine.toString();
+				feedLine.setLength(0);
+			}
+			processFedLine(line);
+			if (c == '\r') {
+				if (i+1 == length)
+					feedSkipLF = true;
+				else if (chunk.charAt(i+1) == '\n')
+					i++;
+			}
+			begin = i+1;
+		}
+		feedLine.append(chunk, begin, length);
+	}
+	
+	/*
+	 * Ends the fed document. Returns its tree, or null when the document
+	 * was started with an event handler, which then gets the remaining
+	 * events.
+	 */
+	public Node finish() {
+		close();
+		ParseEventHandler handler = feedHandler;
+		feedHandler = null;
+		if (handler == null) {
+			processInlines(root);
+			return root;
+		}
+		releaseBlocks(handler);
+		handler.exitBlock(root);
+		root = null;
+		return null;
+	}
+	
+	/*
+	 * Ends the fed document leaving its closed blocks in the tree
+	 * without inline parsing.
+	 */
+	void close() {
+		if (!feeding) start();
+		if (feedLine.length() > 0) {
+			processFedLine(feedLine.toString());
+			feedLine.setLength(0);
+		}
+		feeding = false;
+		end();
+	}
+	
+	private void processFedLine(String line) {
+		lineNumber++;
+		processLine(line);
+		if (feedHandler != null)
+			releaseBlocks(feedHandler);
+	}
+	
+	public Iterator<ParseEvent> events(String input) {
+		begin(input);
+		return new ParseEventIterator(this, root);
+	}
+	
+	public Iterator<ParseEvent> events(Reader reader) {
+		begin(reader);
+		return new ParseEventIterator(this, root);
+	}
+	
+	private void begin(Reader reader) {
+		begin();
 		if (reader instanceof BufferedReader)
-			bufferedReader = (BufferedReader) reader;
+			this.reader = (BufferedReader) reader;
 		else
-			bufferedReader = new BufferedReader(reader);
-		String line;
+			this.reader = new BufferedReader(reader);
+	}
+	
+	private void begin(String input) {
+		begin();
+		this.input = input;
+		inputPos = 0;
+	}
+	
+	private void begin(MappedInput mapped) {
+		begin("");
+		this.mapped = mapped;
+	}
+	
+	private void begin() {
+		ip.refmap().clear();
+		if (references != null)
+			ip.refmap().putAll(references);
+		ip.resetStringBuilders();
+		sb = reuse(sb);
+		root = new DocumentNode(0, 0);
+		reader = null;
+		input = null;
+		mapped = null;
+		feeding = false;
+		feedHandler = null;
+		current = root;
+		lineNumber = firstLine - 1;
+		lastLineLength = 0;
+		lastMatched = root;
+		deferredBlocks = false;
+	}
+	
+	/*
+	 * Processes the next input line. At the end of input finalizes
+	 * the open blocks and returns false.
+	 */
+	boolean nextLine() {
+		if (reader == null && input == null) return false;
 		try {
-			current = root;
-			lineNumber = 0;
-			lastLineLength = 0;
-			lastMatched = root;
-			while ((line = bufferedReader.readLine()) != null) {
+			CharSequence line = (input != null) ? inputLine() : reader.readLine();
+			if (line != null) {
 				lineNumber++;
 				processLine(line);
+				return true;
 			}
-			while (current != null)
-				finalizeBlock(current, lineNumber);
-			processInlines();
-			return root;
 		} catch (IOException e) {
 			throw new CommonMarkParserException("Can't read input", e);
 		}
+		reader = null;
+		input = null;
+		mapped = null;
+		end();
+		return false;
+	}
+	
+	/* Splits the input into lines as BufferedReader.readLine does. */
+	private CharSequence inputLine() throws IOException {
+		if (inputPos >= input.length()) {
+			if (mapped == null || (input = mapped.nextChunk()) == null) return null;
+			inputPos = 0;
+		}
+		int length = input.length();
+		int begin = inputPos;
+		int end = begin;
+		char c = 0;
+		while (end < length && (c = input.charAt(end)) != '\n' && c != '\r')
+			end++;
+		inputPos = end+1;
+		if (c == '\r' && inputPos < length && input.charAt(inputPos) == '\n')
+			inputPos++;
+		return new SourceSlice(input, begin, end);
+	}
+	
+	/*
+	 * Clears a builder for the next document. One grown by a large
+	 * document is dropped so that it doesn't pin memory.
+	 */
+	static StringBuilder reuse(StringBuilder sb) {
+		if (sb == null || sb.capacity() > MAX_REUSED_CAPACITY)
+			return new StringBuilder();
+		sb.setLength(0);
+		return sb;
+	}
+	
+	private void end() {
+		while (current != null)
+			finalizeBlock(current, lineNumber);
+	}
+	
+	private void releaseBlocks(ParseEventHandler handler) {
+		Node block;
+		while ((block = releasableBlock()) != null) {
+			NodeEvents.walk(block, handler);
+			block.unlink();
+		}
+	}
+	
+	/*
+	 * Returns the first top level block with its inlines parsed once it
+	 * is closed; the caller unlinks it after use. A block with a ']' may
+	 * use a reference defined further down, so unless forward references
+	 * are off it and everything after it waits for the end of input.
+	 */
+	Node releasableBlock() {
+		Node block = closedBlock();
+		if (block == null)
+			return null;
+		if (current != null && forwardReferences &&
+			(deferredBlocks || mayUseReference(block))) {
+			deferredBlocks = true;
+			return null;
+		}
+		processInlines(block);
+		return block;
+	}
+	
+	Node closedBlock() {
+		Node block = root.firstChild();
+		return (block == null || ((BlockNode) block).isOpen()) ? null : block;
+	}
+	
+	Node document() {
+		return root;
+	}
+	
+	int lineNumber() {
+		return lineNumber;
+	}
+	
+	Map<String,Link> refmap() {
+		return ip.refmap();
+	}
+	
+	void references(Map<String,Link> references) {
+		this.references = references;
+	}
+	
+	void firstLine(int firstLine) {
+		this.firstLine = firstLine;
+	}
+	
+	boolean mayUseReference(Node block) {
+		Node current = block;
+		while (current != null) {
+			if ((current instanceof ParagraphBlockNode) ||
+				(current instanceof HeadingBlockNode)) {
+				if (contains(((BlockNode) current).stringContentSequence(), ']'))
+					return true;
+			} else if (current.firstChild() != null) {
+				current = current.firstChild();
+				continue;
+			}
+			while (current != block && current.next() == null)
+				current = current.parent();
+			current = (current == block) ? null : current.next();
+		}
+		return false;
 	}
 	
 	private char readChar(int pos) {
@@ -285,7 +701,7 @@ public class Parser {
 				return true;
 			if ((node instanceof ListBlockNode) ||
 				(node instanceof ItemBlockNode))
-				node = (BlockNode) node.childs().peekLast();
+				node = (BlockNode) node.lastChild();
 			else
 				break;
 		}
@@ -355,7 +771,7 @@ public class Parser {
 	private boolean itemBlockContinueChecker(BlockNode node) {
 		ItemBlockNode iNode = (ItemBlockNode) node;
 		if (blank) {
-			if (node.childs().isEmpty())
+			if (node.firstChild() == null)
 				return false;
 			else
 				advanceNextNonspace();
@@ -374,6 +790,10 @@ public class Parser {
 	}
 	
 	private void finalizeParagraphBlock(BlockNode node) {
+		CharSequence content = node.stringContentSequence();
+		/* A definition starts with a bracket, possibly written as an entity */
+		if (content.length() == 0 || (content.charAt(0) != '[' && content.charAt(0) != '&'))
+			return;
 		String stringContent = node.stringContent();
 		int pos = ip.parseReferences(stringContent);
 		if (pos > 0) {
@@ -387,21 +807,20 @@ public class Parser {
 					return;
 				}
 			}
-			removeNode(node);
+			node.unlink();
 		}
 	}
 	
 	private void finalizeCodeBlock(BlockNode node) {
 		if (((CodeBlockNode)node).isFenced()) {
 			CodeBlockNode cNode = (CodeBlockNode)node;
-			String content = cNode.stringContent();
-			int newlinePos = content.indexOf('\n');
-			String firstLine = content.substring(0, newlinePos);
-			String rest = content.substring(newlinePos + 1);
+			CharSequence content = cNode.stringContentSequence();
+			int newlinePos = indexOf(content, '\n', 0);
+			String firstLine = content.subSequence(0, newlinePos).toString();
 			cNode.info(ip.unescapeString(firstLine.trim()));
-			cNode.literal(rest);
+			cNode.literal(content.subSequence(newlinePos + 1, content.length()));
 		} else {
-			String line = node.stringContent();
+			CharSequence line = node.stringContentSequence();
 			int length = line.length();
 			int end = length;
 			for (int i = length-1; i >= 0; i--) {
@@ -411,7 +830,7 @@ public class Parser {
 			}
 			end++;
 			if (end < length)
-				((CodeBlockNode) node).literal(line.substring(0, end));
+				((CodeBlockNode) node).literal(line.subSequence(0, end));
 			else
 				((CodeBlockNode) node).literal(line);
 		}
@@ -419,7 +838,7 @@ public class Parser {
 	}
 
 	private void finalizeHtmlBlock(BlockNode node) {
-		String line = node.stringContent();
+		CharSequence line = node.stringContentSequence();
 		int length = line.length();
 		int end = length;
 		for (int i = length-1; i >= 0; i--) {
@@ -428,22 +847,33 @@ public class Parser {
 			if (c == '\n') end = i;
 		}
 		if (end < length)
-			((HtmlBlockNode) node).literal(line.substring(0, end));
+			((HtmlBlockNode) node).literal(line.subSequence(0, end));
 		else
 			((HtmlBlockNode) node).literal(line);
 		node.stringContent(null);
 	}
 	
+	private static int indexOf(CharSequence sequence, char ch, int from) {
+		int length = sequence.length();
+		for (int i = from; i < length; i++)
+			if (sequence.charAt(i) == ch) return i;
+		return -1;
+	}
+	
+	private static boolean contains(CharSequence sequence, char ch) {
+		return indexOf(sequence, ch, 0) >= 0;
+	}
+	
 	private void finalizeListBlock(BlockNode node) {
-		Node last = node.childs().peekLast();
-		for (Node iNode : node.childs()) {
+		Node last = node.lastChild();
+		for (Node iNode = node.firstChild(); iNode != null; iNode = iNode.next()) {
 			if (endsWithBlankLine((BlockNode) iNode) &&
 				iNode != last) {
 				((ListBlockNode) node).tight(false);
 				break;
 			}
-			Node subLast = iNode.childs().peekLast();
-			for (Node subiNode : iNode.childs()) {
+			Node subLast = iNode.lastChild();
+			for (Node subiNode = iNode.firstChild(); subiNode != null; subiNode = subiNode.next()) {
 				if (endsWithBlankLine((BlockNode) subiNode) &&
 					(iNode != last || subiNode != subLast)) {
 					((ListBlockNode) node).tight(false);
@@ -469,8 +899,7 @@ public class Parser {
 			((checker = canContainCheckers.get(current.getClass())) == null ||
 			!checker.canContain(child)))
 			finalizeBlock(current, lineNumber - 1);
-		child.parent(current);
-		current.childs().addLast(child);
+		current.appendChild(child);
 		current = child;
 	}
 
@@ -486,6 +915,17 @@ public class Parser {
 	}
 	
 	private void addLine() {
+		if (line instanceof SourceSlice && !partiallyConsumedTab) {
+			/* The line and its newline are passed on as a slice of the input */
+			SourceSlice slice = (SourceSlice) line;
+			String source = slice.source();
+			int end = slice.end();
+			if (end < source.length() && source.charAt(end) == '\n' &&
+				indexOf(line, (char) 0, offset) < 0) {
+				current.appendStringContent(new SourceSlice(source, slice.start() + offset, end + 1));
+				return;
+			}
+		}
 		sb.setLength(0);
 		if (partiallyConsumedTab) {
 			offset++;
@@ -496,7 +936,7 @@ public class Parser {
 			sb.append(readChar(i));
 		}
 		sb.append('\n');
-		current.stringContent(current.stringContent()+sb.toString());
+		current.appendStringContent(sb);
 	}
 
 	private void advanceOffset(int count, boolean columns) {
@@ -537,27 +977,6 @@ public class Parser {
 		 }
 	}
 	
-	private void removeNode(Node node) {
-		Deque<Node> childs = new LinkedList<>();
-		Node parent = node.parent();
-		parent.childs().forEach(n -> {
-			if (n != node) childs.addLast(n);
-		});
-		parent.childs(childs);
-	}
-	
-	private void replaceNode(Node node, Node newNode) {
-		Deque<Node> childs = new LinkedList<>();
-		Node parent = node.parent();
-		parent.childs().forEach(n -> {
-			if (n != node)
-				childs.addLast(n);
-			else
-				childs.addLast(newNode);
-		});
-		parent.childs(childs);
-	}
-	
 	private void unknownCharHandler(BlockNode node) {
 		if (!indented &&
 			(node instanceof ParagraphBlockNode) &&
@@ -641,9 +1060,8 @@ public class Parser {
 			closeUnmatchedBlocks();
 			HeadingBlockNode child = new HeadingBlockNode(node.startLine(), node.startColumn());
 			child.level(setextHeadingChar == '=' ? 1 : 2);
-			child.stringContent(node.stringContent());
-			child.parent(node.parent());
-			replaceNode(node, child);
+			child.stringContent(node.stringContentSequence());
+			node.replaceWith(child);
 			this.current = child;
 			advanceOffset(length - offset, false);
 			matchedLeaf = true;
@@ -883,12 +1301,17 @@ public class Parser {
 			htmlBlockType = 1;
 			state = HTML_BLOCK;
 			newPos = pos;
-		} else if (htmlBlockType6Tags.isEmpty() && htmlBlockType1Tags.isEmpty() &&
-			!(node instanceof ParagraphBlockNode) &&
-			(isClosingTag ? ip.isClosingTag(line, tagBeginPos) : ip.isOpenTag(line, tagBeginPos))) {
-			htmlBlockType = 7;
-			state = HTML_BLOCK;
-			newPos = pos;
+		} else if (htmlBlockType6Tags.isEmpty() && htmlBlockType1Tags.isEmpty()) {
+			/* The tag is checked once, rescanning it for every char is quadratic */
+			if (!(node instanceof ParagraphBlockNode) &&
+				(isClosingTag ? ip.isClosingTag(line.toString(), tagBeginPos) :
+					ip.isOpenTag(line.toString(), tagBeginPos))) {
+				htmlBlockType = 7;
+				state = HTML_BLOCK;
+				newPos = pos;
+			} else {
+				state = NOT_FOUND;
+			}
 		}
 		tagsIndex++;
 	}
@@ -1004,7 +1427,7 @@ public class Parser {
 		return false;
 	}
 	
-	private void processLine(String line) {
+	private void processLine(CharSequence line) {
 		this.line = line;
 		length = line.length();
 		offset = 0;
@@ -1015,7 +1438,7 @@ public class Parser {
 		closedFence = false;
 		BlockNode current = root;
 		BlockNode lastChild = root;
-		while ((lastChild = (BlockNode) lastChild.childs().peekLast()) != null &&
+		while ((lastChild = (BlockNode) lastChild.lastChild()) != null &&
 			lastChild.isOpen()) {
 			findNextNonspace();
 			if (continueCheckers.get(lastChild.getClass()).isContinue(lastChild)) {
@@ -1031,6 +1454,8 @@ public class Parser {
 		allClosed = current == oldCurrent;
 		lastMatched = current;
 		if (blank && current.isLastLineBlank()) {
+			/* Unmatched blocks are closed first so that current is left on an open block */
+			closeUnmatchedBlocks();
 			breakOutOfLists(current);
 			current = this.current;
 		}
@@ -1056,13 +1481,13 @@ public class Parser {
 			addLine();
 		} else {
 			closeUnmatchedBlocks();
-			if (blank && current.childs().peekLast() != null)
-				((BlockNode) current.childs().peekLast()).lastLineBlank(true);
+			if (blank && current.lastChild() != null)
+				((BlockNode) current.lastChild()).lastLineBlank(true);
 			boolean lastLineBlank = blank &&
 				!((current instanceof BlockQuoteNode) ||
 				((current instanceof CodeBlockNode) && ((CodeBlockNode) current).isFenced()) ||
 				(current instanceof ItemBlockNode &&
-					current.childs().peekFirst() == null &&
+					current.firstChild() == null &&
 					current.startLine() == lineNumber));
 			BlockNode cont = current;
 			while (cont != null) {
@@ -1075,14 +1500,14 @@ public class Parser {
 				if ((current instanceof HtmlBlockNode) &&
 					(type = ((HtmlBlockNode) current).htmlBlockType()) >= 1 && type <= 5) {
 					boolean tagsEndFound = false;
+					String rest = line.subSequence(offset, length).toString();
 					if (type == 1) {
-						line = this.line.substring(offset).toLowerCase();
+						rest = rest.toLowerCase();
 						for (int i = 0; i < HTML_BLOCK_TYPE_1_ENDS.length; i++)
-							if (line.contains(HTML_BLOCK_TYPE_1_ENDS[i]))
+							if (rest.contains(HTML_BLOCK_TYPE_1_ENDS[i]))
 								tagsEndFound = true;
 					} else {
-						line = this.line.substring(offset);
-						if (line.contains(HTML_BLOCK_TYPE_FROM_2_TO_5_ENDS[type-2]))
+						if (rest.contains(HTML_BLOCK_TYPE_FROM_2_TO_5_ENDS[type-2]))
 							tagsEndFound = true;
 					}
 					if (tagsEndFound) finalizeBlock(current, lineNumber);
@@ -1097,33 +1522,141 @@ public class Parser {
 		lastLineLength = length;
 	}
 	
-	private void processInlines() {
-		if (root == null) return;
+	void processInlines(Node root) {
+		List<BlockNode> leafs = new ArrayList<>();
+		long size = 0;
 		Node current = root;
-		Deque<Iterator<Node>> stack = new LinkedList<>();
-		boolean finished = false;
-		while (!finished) {
-			while (current != null) {
-				if ((current instanceof ParagraphBlockNode) ||
-					(current instanceof HeadingBlockNode)) {
-					ip.parseInline((BlockNode) current);
-					((BlockNode)current).stringContent(null);
-				}
-				if (current.childs().isEmpty()) break;
-				Iterator<Node> iterator = current.childs().iterator();
-				stack.push(iterator);
-				current = iterator.next();
+		while (current != null) {
+			if ((current instanceof ParagraphBlockNode) ||
+				(current instanceof HeadingBlockNode)) {
+				BlockNode block = (BlockNode) current;
+				leafs.add(block);
+				size += block.stringContentSequence().length();
+			} else if (current.firstChild() != null) {
+				current = current.firstChild();
+				continue;
 			}
-			Iterator<Node> iterator = stack.peek();
-			if (iterator != null && iterator.hasNext()) {
-				current = iterator.next();
-			} else if (iterator == null) {
-				finished = true;
-				break;
+			while (current != root && current.next() == null)
+				current = current.parent();
+			current = (current == root) ? null : current.next();
+		}
+		if (parallelInlineThreshold >= 0 && size >= parallelInlineThreshold && leafs.size() > 1 &&
+			hasWorkerInlineParsers())
+			parseInlinesParallel(leafs, size);
+		else
+			for (BlockNode block : leafs)
+				ip.parseInline(block);
+		for (BlockNode block : leafs)
+			block.stringContent(null);
+	}
+	
+	/*
+	 * Block parses chunks of the input in parallel. Every chunk but the
+	 * first starts where the scanner guessed a top level block starts.
+	 * The guess is checked by passing the first line of the chunk to the
+	 * parser of the previous one. When the line doesn't start a top level
+	 * block there, that parser goes on with the rest of the chunk.
+	 */
+	private Node parseParallel(String input) {
+		ForkJoinPool pool = forkJoinPool();
+		List<Integer> offsets = new ArrayList<>();
+		List<Integer> lineNumbers = new ArrayList<>();
+		new SplitScanner(input).split(input.length() / (pool.getParallelism() * 4) + 1,
+			offsets, lineNumbers);
+		int chunks = offsets.size();
+		List<ForkJoinTask<Parser>> tasks = new ArrayList<>();
+		for (int i = 0; i < chunks; i++) {
+			int begin = offsets.get(i);
+			int end = (i+1 < chunks) ? offsets.get(i+1) : input.length();
+			int firstLine = lineNumbers.get(i);
+			boolean last = (i+1 == chunks);
+			tasks.add(pool.submit(() -> {
+				Parser worker = new Parser(workerInlineParser());
+				worker.firstLine(firstLine);
+				worker.start();
+				worker.feed(input.subSequence(begin, end));
+				if (last) worker.close();
+				return worker;
+			}));
+		}
+		begin();
+		Parser previous = tasks.get(0).join();
+		for (int i = 1; i < chunks; i++) {
+			int begin = offsets.get(i);
+			int end = (i+1 < chunks) ? offsets.get(i+1) : input.length();
+			int lineEnd = begin;
+			while (lineEnd < end && input.charAt(lineEnd) != '\n' && input.charAt(lineEnd) != '\r')
+				lineEnd++;
+			if (lineEnd < end && input.charAt(lineEnd) == '\r' &&
+				lineEnd+1 < end && input.charAt(lineEnd+1) == '\n')
+				lineEnd++;
+			lineEnd = Math.min(lineEnd+1, end);
+			previous.feed(input.subSequence(begin, lineEnd));
+			Node block = previous.root.lastChild();
+			if (block != null && ((BlockNode) block).startLine() == lineNumbers.get(i)) {
+				block.unlink();
+				join(previous);
+				previous = tasks.get(i).join();
 			} else {
-				stack.pop();
-				current = null;
+				tasks.get(i).cancel(false);
+				previous.feed(input.subSequence(lineEnd, end));
+				if (i+1 == chunks) previous.close();
+			}
+		}
+		join(previous);
+		lineNumber = previous.lineNumber;
+		lastLineLength = previous.lastLineLength;
+		end();
+		processInlines(root);
+		return root;
+	}
+	
+	/* Moves the blocks and the definitions of a chunk parser to this one. */
+	private void join(Parser chunk) {
+		Node block;
+		while ((block = chunk.root.firstChild()) != null)
+			root.appendChild(block);
+		Map<String,Link> refmap = ip.refmap();
+		chunk.ip.refmap().forEach(refmap::putIfAbsent);
+	}
+	
+	/*
+	 * Worker threads can only parse like ip does when a factory was set
+	 * or ip is the default implementation, which is then copied.
+	 */
+	private boolean hasWorkerInlineParsers() {
+		return inlineParserFactory != DEFAULT_INLINE_PARSER_FACTORY || hasDefaultInlineParser();
+	}
+	
+	private InlineParser workerInlineParser() {
+		InlineParser worker = inlineParserFactory.get();
+		if (inlineParserFactory == DEFAULT_INLINE_PARSER_FACTORY)
+			worker.whitespaseCharFunc(((InlineParserImpl) ip).whitespaseCharFunc());
+		return worker;
+	}
+	
+	private void parseInlinesParallel(List<BlockNode> leafs, long size) {
+		ForkJoinPool pool = forkJoinPool();
+		long chunkSize = size / pool.getParallelism() + 1;
+		Map<String,Link> refmap = ip.refmap();
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		int begin = 0;
+		long chunk = 0;
+		for (int i = 0; i < leafs.size(); i++) {
+			chunk += leafs.get(i).stringContentSequence().length();
+			if (chunk >= chunkSize || i == leafs.size()-1) {
+				List<BlockNode> blocks = leafs.subList(begin, i+1);
+				tasks.add(pool.submit(() -> {
+					InlineParser worker = workerInlineParser();
+					worker.refmap(refmap);
+					for (BlockNode block : blocks)
+						worker.parseInline(block);
+				}));
+				begin = i+1;
+				chunk = 0;
 			}
 		}
+		for (ForkJoinTask<?> task : tasks)
+			task.join();
 	}
 }
@@ -0,0 +1,113 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import java.io.Reader;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import nikoladasm.commonmark.nodes.Node;
+
+public class ParserPool {
+
+	public static final int DEFAULT_MAX_IDLE = 64;
+	
+	private final Supplier<Parser> factory;
+	private final int maxIdle;
+	private final Queue<Parser> idle = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger idleCount = new AtomicInteger();
+	
+	public ParserPool() {
+		this(DEFAULT_MAX_IDLE);
+	}
+	
+	public ParserPool(int maxIdle) {
+		this(maxIdle, Parser::getInstance);
+	}
+	
+	public ParserPool(int maxIdle, Supplier<Parser> factory) {
+		if (maxIdle < 0)
+			throw new IllegalArgumentException("maxIdle must not be negative");
+		this.maxIdle = maxIdle;
+		this.factory = factory;
+	}
+	
+	public int maxIdle() {
+		return maxIdle;
+	}
+	
+	public int idle() {
+		return idleCount.get();
+	}
+	
+	public Parser acquire() {
+		Parser parser = idle.poll();
+		if (parser == null) return factory.get();
+		idleCount.decrementAndGet();
+		return parser;
+	}
+	
+	public void release(Parser parser) {
+		if (parser == null) return;
+		parser.reset();
+		if (idleCount.incrementAndGet() > maxIdle) {
+			idleCount.decrementAndGet();
+			return;
+		}
+		idle.offer(parser);
+	}
+	
+	public Node parse(String input) {
+		Parser parser = acquire();
+		try {
+			return parser.parse(input);
+		} finally {
+			release(parser);
+		}
+	}
+	
+	public Node parse(Reader reader) {
+		Parser parser = acquire();
+		try {
+			return parser.parse(reader);
+		} finally {
+			release(parser);
+		}
+	}
+	
+	public void parse(String input, ParseEventHandler handler) {
+		Parser parser = acquire();
+		try {
+			parser.parse(input, handler);
+		} finally {
+			release(parser);
+		}
+	}
+	
+	public void parse(Reader reader, ParseEventHandler handler) {
+		Parser parser = acquire();
+		try {
+			parser.parse(reader, handler);
+		} finally {
+			release(parser);
+		}
+	}
+}
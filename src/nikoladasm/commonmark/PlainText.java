@@ -0,0 +1,231 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import java.io.IOException;
+
+import nikoladasm.commonmark.nodes.BlockNode;
+import nikoladasm.commonmark.nodes.DocumentNode;
+import nikoladasm.commonmark.nodes.InlineLineBreakNode;
+import nikoladasm.commonmark.nodes.InlineSoftBreakNode;
+import nikoladasm.commonmark.nodes.InlineTextNode;
+import nikoladasm.commonmark.nodes.ParagraphBlockNode;
+
+/*
+ * Fast path for input which is only paragraphs of prose: no char which
+ * may start a block or an inline construct, no tabs and no indented code.
+ * Such input is split into lines here directly instead of going through
+ * the block and inline parsers. UTF-8 input is scanned as Utf8Bytes:
+ * markdown syntax is ASCII, so only multibyte sequences are decoded, to
+ * look for Unicode spaces.
+ */
+final class PlainText {
+
+	private PlainText() {
+	}
+	
+	static boolean isPlain(CharSequence input) {
+		int length = input.length();
+		boolean paragraph = false;
+		int i = 0;
+		while (i < length) {
+			int indent = 0;
+			while (i < length && input.charAt(i) == ' ') {
+				i++;
+				indent++;
+			}
+			if (i == length) break;
+			char c = input.charAt(i);
+			if (c == '\n' || c == '\r') {
+				paragraph = false;
+				i = nextLine(input, i);
+				continue;
+			}
+			if ((indent >= 4 && !paragraph) || c == '#' || c == '-' || c == '+' ||
+				c == '=' || isOrderedListMarker(input, i))
+				return false;
+			paragraph = true;
+			while (i < length) {
+				c = input.charAt(i);
+				if (c == '\n' || c == '\r') break;
+				if (c < 0x80) {
+					if (isSpecial(c)) return false;
+					i++;
+				} else {
+					int n = nonAsciiLength(input, i);
+					if (n < 0) return false;
+					i += n;
+				}
+			}
+			i = nextLine(input, i);
+		}
+		return true;
+	}
+	
+	/*
+	 * Length of the non-ASCII char at pos, or of its UTF-8 sequence. -1
+	 * if it is a Unicode space or malformed UTF-8: decoding replaces the
+	 * bad bytes.
+	 */
+	private static int nonAsciiLength(CharSequence input, int pos) {
+		int cp;
+		int length;
+		if (input instanceof Utf8Bytes) {
+			cp = ((Utf8Bytes) input).codePointAt(pos);
+			if (cp < 0) return -1;
+			length = (cp < 0x800) ? 2 : (cp < 0x10000) ? 3 : 4;
+		} else {
+			cp = input.charAt(pos);
+			length = 1;
+		}
+		return (Character.isWhitespace(cp) || Character.isSpaceChar(cp)) ? -1 : length;
+	}
+	
+	private static boolean isSpecial(char c) {
+		switch (c) {
+			case '\\': case '`': case '*': case '_': case '[': case ']':
+			case '<': case '>': case '&': case '~':
+				return true;
+			default:
+				return c < ' ';
+		}
+	}
+	
+	private static boolean isOrderedListMarker(CharSequence input, int pos) {
+		int i = pos;
+		while (i < input.length() && i-pos < 10 &&
+			input.charAt(i) >= '0' && input.charAt(i) <= '9')
+			i++;
+		return i > pos && i < input.length() &&
+			(input.charAt(i) == '.' || input.charAt(i) == ')');
+	}
+	
+	private static int nextLine(CharSequence input, int pos) {
+		if (pos < input.length() && input.charAt(pos) == '\r' &&
+			pos+1 < input.length() && input.charAt(pos+1) == '\n')
+			return pos+2;
+		return pos+1;
+	}
+	
+	private static int lineEnd(CharSequence input, int pos) {
+		int i = pos;
+		while (i < input.length() && input.charAt(i) != '\n' && input.charAt(i) != '\r')
+			i++;
+		return i;
+	}
+	
+	private static int trimEnd(CharSequence input, int begin, int end) {
+		while (end > begin && input.charAt(end-1) == ' ')
+			end--;
+		return end;
+	}
+	
+	/*
+	 * Appends the HTML of plain input. Utf8Bytes appended to a UTF-8
+	 * output go out as the bytes they are.
+	 */
+	static void appendHtml(CharSequence input, CharSequence softbreak, Appendable out)
+			throws IOException {
+		int length = input.length();
+		boolean paragraph = false;
+		boolean lineBreak = false;
+		int i = 0;
+		while (i < length) {
+			int end = lineEnd(input, i);
+			int begin = i;
+			while (begin < end && input.charAt(begin) == ' ')
+				begin++;
+			if (begin == end) {
+				if (paragraph) out.append("</p>\n");
+				paragraph = false;
+			} else {
+				int textEnd = trimEnd(input, begin, end);
+				if (!paragraph)
+					out.append("<p>");
+				else
+					out.append(lineBreak ? "<br />\n" : softbreak);
+				paragraph = true;
+				appendEscaped(input, begin, textEnd, out);
+				lineBreak = end-textEnd >= 2;
+			}
+			i = nextLine(input, end);
+		}
+		if (paragraph) out.append("</p>\n");
+	}
+	
+	private static void appendEscaped(CharSequence input, int begin, int end, Appendable out)
+			throws IOException {
+		int run = begin;
+		for (int i = begin; i < end; i++) {
+			if (input.charAt(i) == '"') {
+				out.append(input, run, i).append("&quot;");
+				run = i+1;
+			}
+		}
+		out.append(input, run, end);
+	}
+	
+	/* Builds the tree the block and inline parsers give for plain input. */
+	static DocumentNode document(String input, int firstLine) {
+		DocumentNode root = new DocumentNode(0, 0);
+		int length = input.length();
+		int lineNumber = firstLine-1;
+		int lastLineLength = 0;
+		ParagraphBlockNode paragraph = null;
+		boolean lineBreak = false;
+		int i = 0;
+		while (i < length) {
+			int end = lineEnd(input, i);
+			int begin = i;
+			lineNumber++;
+			while (begin < end && input.charAt(begin) == ' ')
+				begin++;
+			if (begin == end) {
+				if (paragraph != null)
+					close(paragraph, lineNumber-1, lastLineLength);
+				paragraph = null;
+			} else {
+				int textEnd = trimEnd(input, begin, end);
+				if (paragraph == null) {
+					paragraph = new ParagraphBlockNode(lineNumber, begin-i+1);
+					root.appendChild(paragraph);
+				} else {
+					paragraph.appendChild(lineBreak ?
+						new InlineLineBreakNode() : new InlineSoftBreakNode());
+				}
+				InlineTextNode text = new InlineTextNode();
+				text.literal(input.substring(begin, textEnd));
+				paragraph.appendChild(text);
+				lineBreak = end-textEnd >= 2;
+			}
+			lastLineLength = end-i;
+			i = nextLine(input, end);
+		}
+		if (paragraph != null)
+			close(paragraph, lineNumber, lastLineLength);
+		close(root, lineNumber, lastLineLength);
+		return root;
+	}
+	
+	private static void close(BlockNode block, int lineNumber, int lastLineLength) {
+		block.close();
+		block.endLine(lineNumber);
+		block.endColumn(lastLineLength);
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import java.util.List;
+
+/*
+ * Finds lines where a document may be split for parallel block
+ * parsing: not indented lines after a blank line, outside fenced code
+ * and HTML blocks, which can't continue a list. Only top level
+ * constructs are tracked. The parser checks every split when it joins
+ * the chunks, so a wrong guess only costs parallelism.
+ */
+final class SplitScanner {
+
+	private static final String[] HTML_TYPE_1_TAGS = {"script", "pre", "style", "textarea"};
+	private static final String[] HTML_TYPE_1_ENDS = {"</script>", "</pre>", "</style>", "</textarea>"};
+	
+	private final String input;
+	private final int length;
+	private char fenceChar;
+	private int fenceLength;
+	private String htmlEnd;
+	
+	SplitScanner(String input) {
+		this.input = input;
+		this.length = input.length();
+	}
+	
+	/*
+	 * Adds the offset and the line number of every split at least
+	 * chunkSize chars after the previous one. The first chunk starts
+	 * at offset 0 on line 1.
+	 */
+	void split(int chunkSize, List<Integer> offsets, List<Integer> lineNumbers) {
+		offsets.add(0);
+		lineNumbers.add(1);
+		int lineNumber = 1;
+		int chunkStart = 0;
+		boolean previousBlank = false;
+		int pos = 0;
+		while (pos < length) {
+			int end = pos;
+			while (end < length && input.charAt(end) != '\n' && input.charAt(end) != '\r')
+				end++;
+			boolean blank = isBlank(pos, end);
+			if (previousBlank && fenceChar == 0 && htmlEnd == null &&
+				pos - chunkStart >= chunkSize && isSafeStart(pos, end)) {
+				offsets.add(pos);
+				lineNumbers.add(lineNumber);
+				chunkStart = pos;
+			}
+			track(pos, end);
+			previousBlank = blank && fenceChar == 0 && htmlEnd == null;
+			if (end < length && input.charAt(end) == '\r' &&
+				end+1 < length && input.charAt(end+1) == '\n')
+				end++;
+			pos = end+1;
+			lineNumber++;
+		}
+	}
+	
+	private boolean isBlank(int pos, int end) {
+		for (int i = pos; i < end; i++) {
+			char c = input.charAt(i);
+			if (c != ' ' && c != '\t') return false;
+		}
+		return true;
+	}
+	
+	private boolean isSafeStart(int pos, int end) {
+		if (pos == end) return false;
+		char c = input.charAt(pos);
+		return !(c == ' ' || c == '\t' || c == '-' || c == '+' || c == '*' ||
+			(c >= '0' && c <= '9'));
+	}
+	
+	private void track(int pos, int end) {
+		if (fenceChar != 0) {
+			int indent = indent(pos, end);
+			if (indent < 4 && fence(pos+indent, end) >= fenceLength &&
+				isBlank(pos+indent+fence(pos+indent, end), end))
+				fenceChar = 0;
+			return;
+		}
+		if (htmlEnd != null) {
+			if (contains(pos, end, htmlEnd))
+				htmlEnd = null;
+			return;
+		}
+		if (pos == end) return;
+		char c = input.charAt(pos);
+		if (c == '`' || c == '~') {
+			int n = fence(pos, end);
+			if (n >= 3 && (c == '~' || !contains(pos+n, end, "`"))) {
+				fenceChar = c;
+				fenceLength = n;
+			}
+		} else if (c == '<') {
+			htmlEnd = htmlStart(pos, end);
+			if (htmlEnd != null && contains(pos+1, end, htmlEnd))
+				htmlEnd = null;
+		}
+	}
+	
+	private int indent(int pos, int end) {
+		int i = pos;
+		while (i < end && input.charAt(i) == ' ') i++;
+		return i-pos;
+	}
+	
+	private int fence(int pos, int end) {
+		if (pos >= end) return 0;
+		char c = input.charAt(pos);
+		if (c != fenceChar && fenceChar != 0) return 0;
+		int i = pos;
+		while (i < end && input.charAt(i) == c) i++;
+		return i-pos;
+	}
+	
+	private String htmlStart(int pos, int end) {
+		if (input.startsWith("<!--", pos)) return "-->";
+		if (input.startsWith("<?", pos)) return "?>";
+		if (input.startsWith("<![CDATA[", pos)) return "]]>";
+		if (input.startsWith("<!", pos) && pos+2 < end &&
+			Character.isLetter(input.charAt(pos+2)))
+			return ">";
+		for (int i = 0; i < HTML_TYPE_1_TAGS.length; i++) {
+			String tag = HTML_TYPE_1_TAGS[i];
+			int tagEnd = pos+1+tag.length();
+			if (input.regionMatches(true, pos+1, tag, 0, tag.length()) &&
+				(tagEnd == end || input.charAt(tagEnd) == ' ' ||
+				input.charAt(tagEnd) == '\t' || input.charAt(tagEnd) == '>'))
+				return HTML_TYPE_1_ENDS[i];
+		}
+		return null;
+	}
+	
+	private boolean contains(int pos, int end, String s) {
+		int n = s.length();
+		for (int i = pos; i + n <= end; i++)
+			if (input.regionMatches(true, i, s, 0, n))
+				return true;
+		return false;
+	}
+}
@@ -18,8 +18,6 @@
 
 package nikoladasm.commonmark;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-
 public class UrlUtil {
 
 	private static char[] hexDigit = "0123456789ABCDEF".toCharArray();
@@ -177,11 +175,36 @@ public class UrlUtil {
 				i++;
 				continue;
 			}
-			byte[] utf8 = new String(new int[]{cp}, 0, 1).getBytes(UTF_8);
-			for (int j = 0; j < utf8.length; j++)
-				sb.append("%" + hexDigit[(utf8[j] & 255) >>> 4] + hexDigit[utf8[j] & 15]);
-			i++;
+			appendUtf8(cp, sb);
+			i += Character.charCount(cp);
 		}
 		return sb.toString();
 	}
+	
+	/*
+	 * Percent encodes the UTF-8 bytes of a non-ASCII code point without
+	 * going through String.getBytes. A lone surrogate becomes '?', as
+	 * it does there.
+	 */
+	private static void appendUtf8(int cp, StringBuilder sb) {
+		if (cp < 0x800) {
+			appendByte(0xC0 | (cp >>> 6), sb);
+		} else if (cp < 0x10000) {
+			if (cp >= 0xD800 && cp <= 0xDFFF) {
+				appendByte('?', sb);
+				return;
+			}
+			appendByte(0xE0 | (cp >>> 12), sb);
+			appendByte(0x80 | ((cp >>> 6) & 0x3F), sb);
+		} else {
+			appendByte(0xF0 | (cp >>> 18), sb);
+			appendByte(0x80 | ((cp >>> 12) & 0x3F), sb);
+			appendByte(0x80 | ((cp >>> 6) & 0x3F), sb);
+		}
+		appendByte(0x80 | (cp & 0x3F), sb);
+	}
+	
+	private static void appendByte(int b, StringBuilder sb) {
+		sb.append('%').append(hexDigit[b >>> 4]).append(hexDigit[b & 15]);
+	}
 }
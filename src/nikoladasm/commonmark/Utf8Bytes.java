@@ -0,0 +1,113 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+ * UTF-8 bytes seen as chars, one per byte, so that plain prose can be
+ * recognized and lines split without decoding. Lengths and indexes are in bytes; a
+ * byte of a multibyte sequence reads as a char of 0x80 or more, which
+ * codePointAt() decodes. toString() decodes the bytes, and a UTF-8
+ * output copies them as they are.
+ */
+final class Utf8Bytes implements CharSequence {
+
+	private final byte[] bytes;
+	private final int begin;
+	private final int end;
+	
+	Utf8Bytes(byte[] bytes) {
+		this(bytes, 0, bytes.length);
+	}
+	
+	Utf8Bytes(byte[] bytes, int begin, int end) {
+		if (begin < 0 || end > bytes.length || begin > end)
+			throw new IndexOutOfBoundsException("begin " + begin + ", end " + end);
+		this.bytes = bytes;
+		this.begin = begin;
+		this.end = end;
+	}
+	
+	byte[] bytes() {
+		return bytes;
+	}
+	
+	int begin() {
+		return begin;
+	}
+	
+	@Override
+	public int length() {
+		return end - begin;
+	}
+	
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= end - begin)
+			throw new IndexOutOfBoundsException("index " + index);
+		return (char) (bytes[begin + index] & 0xFF);
+	}
+	
+	@Override
+	public Utf8Bytes subSequence(int start, int end) {
+		if (start < 0 || end > this.end - begin || start > end)
+			throw new IndexOutOfBoundsException("start " + start + ", end " + end);
+		return new Utf8Bytes(bytes, begin + start, begin + end);
+	}
+	
+	/*
+	 * Decodes the multibyte sequence at index, -1 if it is malformed,
+	 * as decoding would replace it.
+	 */
+	int codePointAt(int index) {
+		int pos = begin + index;
+		int lead = bytes[pos] & 0xFF;
+		int count, cp, min;
+		if (lead >= 0xC2 && lead <= 0xDF) {
+			count = 1;
+			cp = lead & 0x1F;
+			min = 0x80;
+		} else if (lead >= 0xE0 && lead <= 0xEF) {
+			count = 2;
+			cp = lead & 0x0F;
+			min = 0x800;
+		} else if (lead >= 0xF0 && lead <= 0xF4) {
+			count = 3;
+			cp = lead & 0x07;
+			min = 0x10000;
+		} else {
+			return -1;
+		}
+		if (pos + count >= end) return -1;
+		for (int i = 1; i <= count; i++) {
+			int b = bytes[pos+i] & 0xFF;
+			if ((b & 0xC0) != 0x80) return -1;
+			cp = (cp << 6) | (b & 0x3F);
+		}
+		if (cp < min || cp > 0x10FFFF || (cp >= 0xD800 && cp <= 0xDFFF))
+			return -1;
+		return cp;
+	}
+	
+	@Override
+	public String toString() {
+		return new String(bytes, begin, end - begin, UTF_8);
+	}
+}
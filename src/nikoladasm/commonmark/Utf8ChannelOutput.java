@@ -0,0 +1,198 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/*
+ * Encodes appended chars to UTF-8 straight into a buffer and drains it
+ * to the channel whenever it fills, so the output never exists as a
+ * whole String. Without a channel the buffer grows instead and holds
+ * the whole output. ASCII is written a byte per char. Lone surrogates
+ * become '?', as they do with String.getBytes. Utf8Bytes are already
+ * encoded and copied as they are.
+ */
+class Utf8ChannelOutput implements Appendable, Flushable {
+
+	private static final int CHUNK_SIZE = 1 << 8;
+	
+	private final WritableByteChannel channel;
+	private ByteBuffer buffer;
+	private byte[] scratch;
+	private char highSurrogate;
+	
+	Utf8ChannelOutput(WritableByteChannel channel, ByteBuffer buffer) {
+		if (buffer.capacity() < 4)
+			throw new IllegalArgumentException("Buffer capacity less than 4");
+		this.channel = channel;
+		this.buffer = buffer;
+		buffer.clear();
+	}
+	
+	Utf8ChannelOutput(int capacity) {
+		channel = null;
+		buffer = ByteBuffer.allocate(Math.max(capacity, 4));
+	}
+	
+	@Override
+	public Appendable append(CharSequence csq) throws IOException {
+		return append(csq, 0, csq.length());
+	}
+	
+	/*
+	 * Encodes as many chars at a time as surely fit: into the array of a
+	 * heap buffer directly, through a small array into a direct one.
+	 */
+	@Override
+	public Appendable append(CharSequence csq, int start, int end) throws IOException {
+		if (csq instanceof Utf8Bytes) {
+			unpairedHighSurrogate();
+			Utf8Bytes utf8 = (Utf8Bytes) csq;
+			put(utf8.bytes(), utf8.begin() + start, end - start);
+			return this;
+		}
+		while (start < end) {
+			if (buffer.remaining() < 4) drain();
+			/* 3 bytes a char, and 1 more for a pair split across calls */
+			int length = Math.min(end - start, (buffer.remaining() - 1) / 3);
+			if (buffer.hasArray()) {
+				int offset = buffer.arrayOffset();
+				int pos = encode(csq, start, start + length, buffer.array(), offset + buffer.position());
+				buffer.position(pos - offset);
+			} else {
+				length = Math.min(length, CHUNK_SIZE);
+				if (scratch == null)
+					scratch = new byte[CHUNK_SIZE * 3 + 1];
+				buffer.put(scratch, 0, encode(csq, start, start + length, scratch, 0));
+			}
+			start += length;
+		}
+		return this;
+	}
+	
+	@Override
+	public Appendable append(char c) throws IOException {
+		if (c >= 0x80 || highSurrogate != 0)
+			return append(String.valueOf(c), 0, 1);
+		if (!buffer.hasRemaining()) drain();
+		buffer.put((byte) c);
+		return this;
+	}
+	
+	/* Returns the position after the bytes written to dst from pos on. */
+	private int encode(CharSequence csq, int start, int end, byte[] dst, int pos) {
+		int i = start;
+		if (highSurrogate != 0 && i < end) {
+			char high = highSurrogate;
+			highSurrogate = 0;
+			if (Character.isLowSurrogate(csq.charAt(i))) {
+				pos = encode(Character.toCodePoint(high, csq.charAt(i++)), dst, pos);
+			} else {
+				dst[pos++] = '?';
+			}
+		}
+		for (; i < end; i++) {
+			char c = csq.charAt(i);
+			if (c < 0x80) {
+				dst[pos++] = (byte) c;
+			} else if (c < 0x800) {
+				dst[pos++] = (byte) (0xC0 | (c >>> 6));
+				dst[pos++] = (byte) (0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c)) {
+				if (i + 1 == end) {
+					highSurrogate = c;
+				} else if (Character.isLowSurrogate(csq.charAt(i + 1))) {
+					pos = encode(Character.toCodePoint(c, csq.charAt(++i)), dst, pos);
+				} else {
+					dst[pos++] = '?';
+				}
+			} else if (Character.isLowSurrogate(c)) {
+				dst[pos++] = '?';
+			} else {
+				dst[pos++] = (byte) (0xE0 | (c >>> 12));
+				dst[pos++] = (byte) (0x80 | ((c >>> 6) & 0x3F));
+				dst[pos++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		return pos;
+	}
+	
+	private static int encode(int cp, byte[] dst, int pos) {
+		dst[pos++] = (byte) (0xF0 | (cp >>> 18));
+		dst[pos++] = (byte) (0x80 | ((cp >>> 12) & 0x3F));
+		dst[pos++] = (byte) (0x80 | ((cp >>> 6) & 0x3F));
+		dst[pos++] = (byte) (0x80 | (cp & 0x3F));
+		return pos;
+	}
+	
+	private void put(byte[] bytes, int offset, int length) throws IOException {
+		while (length > 0) {
+			if (!buffer.hasRemaining()) drain();
+			int n = Math.min(length, buffer.remaining());
+			buffer.put(bytes, offset, n);
+			offset += n;
+			length -= n;
+		}
+	}
+	
+	/*
+	 * Writes out everything buffered so far. A high surrogate still
+	 * waiting for its pair stays behind.
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (channel != null) drain();
+	}
+	
+	/*
+	 * Writes out the rest, including a dangling high surrogate as '?'.
+	 */
+	void finish() throws IOException {
+		unpairedHighSurrogate();
+		flush();
+	}
+	
+	/* The whole output, when there is no channel. */
+	byte[] toByteArray() {
+		return Arrays.copyOf(buffer.array(), buffer.position());
+	}
+	
+	private void unpairedHighSurrogate() throws IOException {
+		if (highSurrogate == 0) return;
+		highSurrogate = 0;
+		if (!buffer.hasRemaining()) drain();
+		buffer.put((byte) '?');
+	}
+	
+	private void drain() throws IOException {
+		if (channel == null) {
+			buffer.flip();
+			buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer);
+			return;
+		}
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+}
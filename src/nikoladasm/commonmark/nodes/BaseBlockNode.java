@@ -18,19 +18,12 @@
 
 package nikoladasm.commonmark.nodes;
 
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Map;
+public abstract class BaseBlockNode extends BaseNode implements BlockNode {
 
-public abstract class BaseBlockNode implements BlockNode {
-
-	private Deque<Node> childs = new LinkedList<>();
-	private String stringContent = "";
-	private Node parent;
-	private Map<String,String> attr = new HashMap<>();
+	private CharSequence stringContent = "";
+	private StringBuilder stringContentBuilder;
 	private boolean open;
-	private final int startLine;
+	private int startLine;
 	private final int startColumn;
 	private int endLine;
 	private int endColumn;
@@ -43,39 +36,50 @@ public abstract class BaseBlockNode implements BlockNode {
 	}
 	
 	@Override
-	public Deque<Node> childs() {
-		return childs;
+	public String stringContent() {
+		CharSequence content = stringContentSequence();
+		return content == null ? null : content.toString();
 	}
 
-	@Override
-	public void childs(Deque<Node> childs) {
-		this.childs = childs;
-	}
-	
-	@Override
-	public Node parent() {
-		return parent;
-	}
-	
-	@Override
-	public void parent (Node parent) {
-		this.parent = parent;
-	}
-	
-	@Override
-	public String stringContent() {
+	/*
+	 * Content still kept in the builder is copied out on every call
+	 * until the block is closed.
+	 */
+	@Override
+	public CharSequence stringContentSequence() {
+		if (stringContentBuilder != null)
+			return stringContentBuilder.toString();
 		return stringContent;
 	}
 
 	@Override
-	public void stringContent(String content) {
-		stringContent = content;
+	public void stringContent(CharSequence content) {
+		stringContent = SourceSlice.retain(content);
+		stringContentBuilder = null;
 	}
 
 	@Override
-	public Map<String,String> attr() {
-		return attr;
+	public void appendStringContent(CharSequence content) {
+		if (stringContentBuilder == null) {
+			if (content instanceof SourceSlice &&
+				(stringContent == null || stringContent.length() == 0)) {
+				stringContent = content;
+				return;
+			}
+			if (stringContent instanceof SourceSlice) {
+				SourceSlice joined = ((SourceSlice) stringContent).join(content);
+				if (joined != null) {
+					stringContent = joined;
+					return;
+				}
+			}
+			stringContentBuilder = new StringBuilder();
+			if (stringContent != null)
+				stringContentBuilder.append(stringContent);
+		}
+		stringContentBuilder.append(content);
 	}
+
 	@Override
 	public boolean isOpen() {
 		return open;
@@ -84,6 +88,10 @@ public abstract class BaseBlockNode implements BlockNode {
 	@Override
 	public void close() {
 		open = false;
+		if (stringContentBuilder != null) {
+			stringContent = stringContentBuilder.toString();
+			stringContentBuilder = null;
+		}
 	}
 	
 	@Override
@@ -106,6 +114,12 @@ public abstract class BaseBlockNode implements BlockNode {
 		return endLine;
 	}
 	
+	@Override
+	public void shiftLines(int delta) {
+		startLine += delta;
+		endLine += delta;
+	}
+	
 	@Override
 	public void endColumn(int colomn) {
 		endColumn = colomn;
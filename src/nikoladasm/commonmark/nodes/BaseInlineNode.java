@@ -18,46 +18,12 @@
 
 package nikoladasm.commonmark.nodes;
 
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Map;
+public abstract class BaseInlineNode extends BaseNode implements InlineNode {
 
-public abstract class BaseInlineNode implements InlineNode {
-
-	private Deque<Node> childs = new LinkedList<>();
-	private Node parent;
-	private Map<String,String> attr = new HashMap<>();
-	
 	protected BaseInlineNode() {
 	}
 	
 	protected BaseInlineNode(Node parent) {
-		this.parent = parent;
-	}
-	
-	@Override
-	public Deque<Node> childs() {
-		return childs;
-	}
-
-	@Override
-	public void childs(Deque<Node> childs) {
-		this.childs = childs;
-	}
-	
-	@Override
-	public Node parent() {
-		return parent;
-	}
-	
-	@Override
-	public void parent (Node parent) {
-		this.parent = parent;
-	}
-	
-	@Override
-	public Map<String,String> attr() {
-		return attr;
+		super(parent);
 	}
 }
@@ -0,0 +1,202 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark.nodes;
+
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Children are kept as an intrusive doubly linked list of siblings,
+ * so a node costs no collection objects and walking it allocates
+ * nothing. childs() is a Deque view over that list for existing code.
+ */
+public abstract class BaseNode implements Node {
+
+	private Node parent;
+	private BaseNode firstChild;
+	private BaseNode lastChild;
+	private BaseNode next;
+	private BaseNode prev;
+	private Map<String,String> attr;
+
+	protected BaseNode() {
+	}
+	
+	protected BaseNode(Node parent) {
+		this.parent = parent;
+	}
+	
+	@Override
+	public Deque<Node> childs() {
+		return new ChildList(this);
+	}
+
+	@Override
+	public void childs(Deque<Node> childs) {
+		Node[] nodes = childs.toArray(new Node[0]);
+		while (firstChild != null)
+			firstChild.unlink();
+		for (Node node : nodes)
+			appendChild(node);
+	}
+	
+	@Override
+	public Node parent() {
+		return parent;
+	}
+	
+	/*
+	 * Setting the parent of a node that is already linked moves it
+	 * to the end of the new parent's children.
+	 */
+	@Override
+	public void parent (Node parent) {
+		if (parent == this.parent || linkedParent() == null)
+			this.parent = parent;
+		else if (parent == null)
+			unlink();
+		else
+			parent.appendChild(this);
+	}
+	
+	@Override
+	public Node firstChild() {
+		return firstChild;
+	}
+	
+	@Override
+	public Node lastChild() {
+		return lastChild;
+	}
+	
+	@Override
+	public Node next() {
+		return next;
+	}
+	
+	@Override
+	public Node prev() {
+		return prev;
+	}
+	
+	@Override
+	public void appendChild(Node child) {
+		BaseNode node = (BaseNode) child;
+		node.unlink();
+		node.parent = this;
+		node.prev = lastChild;
+		if (lastChild != null)
+			lastChild.next = node;
+		else
+			firstChild = node;
+		lastChild = node;
+	}
+	
+	@Override
+	public void prependChild(Node child) {
+		BaseNode node = (BaseNode) child;
+		node.unlink();
+		node.parent = this;
+		node.next = firstChild;
+		if (firstChild != null)
+			firstChild.prev = node;
+		else
+			lastChild = node;
+		firstChild = node;
+	}
+	
+	@Override
+	public void insertAfter(Node sibling) {
+		BaseNode node = (BaseNode) sibling;
+		BaseNode parent = (BaseNode) this.parent;
+		node.unlink();
+		node.parent = parent;
+		node.prev = this;
+		node.next = next;
+		if (next != null)
+			next.prev = node;
+		else
+			parent.lastChild = node;
+		next = node;
+	}
+	
+	@Override
+	public void insertBefore(Node sibling) {
+		BaseNode node = (BaseNode) sibling;
+		BaseNode parent = (BaseNode) this.parent;
+		node.unlink();
+		node.parent = parent;
+		node.next = this;
+		node.prev = prev;
+		if (prev != null)
+			prev.next = node;
+		else
+			parent.firstChild = node;
+		prev = node;
+	}
+	
+	@Override
+	public void unlink() {
+		BaseNode parent = linkedParent();
+		if (parent != null) {
+			if (prev != null)
+				prev.next = next;
+			else
+				parent.firstChild = next;
+			if (next != null)
+				next.prev = prev;
+			else
+				parent.lastChild = prev;
+		}
+		this.parent = null;
+		next = null;
+		prev = null;
+	}
+	
+	@Override
+	public void replaceWith(Node node) {
+		if (node == this) return;
+		if (linkedParent() != null) {
+			insertAfter(node);
+			unlink();
+		} else {
+			node.unlink();
+			node.parent(parent);
+		}
+	}
+	
+	private BaseNode linkedParent() {
+		if (!(parent instanceof BaseNode))
+			return null;
+		BaseNode parent = (BaseNode) this.parent;
+		return (prev != null || parent.firstChild == this) ? parent : null;
+	}
+	
+	@Override
+	public boolean hasAttr() {
+		return attr != null && !attr.isEmpty();
+	}
+	
+	@Override
+	public Map<String,String> attr() {
+		if (attr == null)
+			attr = new HashMap<>();
+		return attr;
+	}
+}
@@ -20,13 +20,16 @@ package nikoladasm.commonmark.nodes;
 
 public interface BlockNode extends Node {
 	String stringContent();
-	void stringContent(String content);
+	CharSequence stringContentSequence();
+	void stringContent(CharSequence content);
+	void appendStringContent(CharSequence content);
 	boolean isOpen();
 	void close();
 	int startLine();
 	int startColumn();
 	void endLine(int lineNumber);
 	int endLine();
+	void shiftLines(int delta);
 	void endColumn(int colomn);
 	int endColumn();
 	boolean isLastLineBlank();
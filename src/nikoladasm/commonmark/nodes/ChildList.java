@@ -0,0 +1,243 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark.nodes;
+
+import java.util.AbstractCollection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+ * Deque view over the children of a node. Adding a node moves it
+ * from wherever it is linked, removing a node unlinks it. Iterators
+ * read the next node ahead, so the returned node may be moved away.
+ */
+class ChildList extends AbstractCollection<Node> implements Deque<Node> {
+
+	private final Node owner;
+	
+	ChildList(Node owner) {
+		this.owner = owner;
+	}
+	
+	private class ChildIterator implements Iterator<Node> {
+		private final boolean descending;
+		private Node next;
+		private Node last;
+		
+		private ChildIterator(boolean descending) {
+			this.descending = descending;
+			next = descending ? owner.lastChild() : owner.firstChild();
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+		
+		@Override
+		public Node next() {
+			if (next == null)
+				throw new NoSuchElementException();
+			last = next;
+			next = descending ? next.prev() : next.next();
+			return last;
+		}
+		
+		@Override
+		public void remove() {
+			if (last == null)
+				throw new IllegalStateException();
+			last.unlink();
+			last = null;
+		}
+	}
+	
+	@Override
+	public Iterator<Node> iterator() {
+		return new ChildIterator(false);
+	}
+	
+	@Override
+	public Iterator<Node> descendingIterator() {
+		return new ChildIterator(true);
+	}
+	
+	@Override
+	public int size() {
+		int size = 0;
+		for (Node node = owner.firstChild(); node != null; node = node.next())
+			size++;
+		return size;
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		return owner.firstChild() == null;
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		return (o instanceof Node) && ((Node) o).parent() == owner &&
+			(((Node) o).prev() != null || owner.firstChild() == o);
+	}
+	
+	@Override
+	public void clear() {
+		Node node;
+		while ((node = owner.firstChild()) != null)
+			node.unlink();
+	}
+	
+	@Override
+	public boolean add(Node node) {
+		addLast(node);
+		return true;
+	}
+	
+	@Override
+	public void addFirst(Node node) {
+		owner.prependChild(node);
+	}
+	
+	@Override
+	public void addLast(Node node) {
+		owner.appendChild(node);
+	}
+	
+	@Override
+	public boolean offerFirst(Node node) {
+		addFirst(node);
+		return true;
+	}
+	
+	@Override
+	public boolean offerLast(Node node) {
+		addLast(node);
+		return true;
+	}
+	
+	@Override
+	public boolean offer(Node node) {
+		return offerLast(node);
+	}
+	
+	@Override
+	public void push(Node node) {
+		addFirst(node);
+	}
+	
+	@Override
+	public Node pollFirst() {
+		Node node = owner.firstChild();
+		if (node != null) node.unlink();
+		return node;
+	}
+	
+	@Override
+	public Node pollLast() {
+		Node node = owner.lastChild();
+		if (node != null) node.unlink();
+		return node;
+	}
+	
+	@Override
+	public Node poll() {
+		return pollFirst();
+	}
+	
+	@Override
+	public Node removeFirst() {
+		Node node = pollFirst();
+		if (node == null)
+			throw new NoSuchElementException();
+		return node;
+	}
+	
+	@Override
+	public Node removeLast() {
+		Node node = pollLast();
+		if (node == null)
+			throw new NoSuchElementException();
+		return node;
+	}
+	
+	@Override
+	public Node remove() {
+		return removeFirst();
+	}
+	
+	@Override
+	public Node pop() {
+		return removeFirst();
+	}
+	
+	@Override
+	public Node peekFirst() {
+		return owner.firstChild();
+	}
+	
+	@Override
+	public Node peekLast() {
+		return owner.lastChild();
+	}
+	
+	@Override
+	public Node peek() {
+		return peekFirst();
+	}
+	
+	@Override
+	public Node getFirst() {
+		Node node = peekFirst();
+		if (node == null)
+			throw new NoSuchElementException();
+		return node;
+	}
+	
+	@Override
+	public Node getLast() {
+		Node node = peekLast();
+		if (node == null)
+			throw new NoSuchElementException();
+		return node;
+	}
+	
+	@Override
+	public Node element() {
+		return getFirst();
+	}
+	
+	@Override
+	public boolean remove(Object o) {
+		return removeFirstOccurrence(o);
+	}
+	
+	@Override
+	public boolean removeFirstOccurrence(Object o) {
+		if (!contains(o))
+			return false;
+		((Node) o).unlink();
+		return true;
+	}
+	
+	@Override
+	public boolean removeLastOccurrence(Object o) {
+		return removeFirstOccurrence(o);
+	}
+}
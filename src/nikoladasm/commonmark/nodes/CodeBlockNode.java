@@ -20,7 +20,7 @@ package nikoladasm.commonmark.nodes;
 
 public class CodeBlockNode extends BaseBlockNode implements BlockNode {
 
-	private String literal;
+	private CharSequence literal;
 	private boolean fenced;
 	private int fenceLength;
 	private char fenceChar;
@@ -32,11 +32,15 @@ public class CodeBlockNode extends BaseBlockNode implements BlockNode {
 	}
 
 	public String literal() {
+		return literal == null ? null : literal.toString();
+	}
+	
+	public CharSequence literalSequence() {
 		return literal;
 	}
 	
-	public void literal(String literal) {
-		this.literal = literal;
+	public void literal(CharSequence literal) {
+		this.literal = SourceSlice.retain(literal);
 	}
 
 	public boolean isFenced() {
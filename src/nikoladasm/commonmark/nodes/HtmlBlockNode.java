@@ -21,7 +21,7 @@ package nikoladasm.commonmark.nodes;
 public class HtmlBlockNode extends BaseBlockNode implements BlockNode {
 
 	private int htmlBlockType;
-	private String literal;
+	private CharSequence literal;
 	
 	public HtmlBlockNode(int startLine, int startColumn) {
 		super(startLine, startColumn);
@@ -36,10 +36,14 @@ public class HtmlBlockNode extends BaseBlockNode implements BlockNode {
 	}
 
 	public String literal() {
+		return literal == null ? null : literal.toString();
+	}
+	
+	public CharSequence literalSequence() {
 		return literal;
 	}
 	
-	public void literal(String literal) {
-		this.literal = literal;
+	public void literal(CharSequence literal) {
+		this.literal = SourceSlice.retain(literal);
 	}
 }
@@ -20,13 +20,17 @@ package nikoladasm.commonmark.nodes;
 
 public class InlineCodeNode extends BaseInlineNode implements InlineNode {
 
-	private String literal;
+	private CharSequence literal;
 	
 	public String literal() {
+		return literal == null ? null : literal.toString();
+	}
+	
+	public CharSequence literalSequence() {
 		return literal;
 	}
 	
-	public void literal(String literal) {
-		this.literal = literal;
+	public void literal(CharSequence literal) {
+		this.literal = SourceSlice.retain(literal);
 	}
 }
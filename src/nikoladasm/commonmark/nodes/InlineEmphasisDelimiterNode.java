@@ -27,6 +27,7 @@ public class InlineEmphasisDelimiterNode extends BaseInlineNode implements Inlin
 	private final boolean beforeIsPunctuation;
 	private boolean canOpen;
 	private boolean canClose;
+	private int index;
 	
 	public InlineEmphasisDelimiterNode(Node parent, char delimiter, boolean beforeIsSpace, boolean beforeIsPunctuation) {
 		super(parent);
@@ -88,4 +89,12 @@ public class InlineEmphasisDelimiterNode extends BaseInlineNode implements Inlin
 	public void canClose(boolean canClose) {
 		this.canClose = canClose;
 	}
+	
+	public int index() {
+		return index;
+	}
+	
+	public void index(int index) {
+		this.index = index;
+	}
 }
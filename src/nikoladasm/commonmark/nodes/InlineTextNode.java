@@ -20,13 +20,73 @@ package nikoladasm.commonmark.nodes;
 
 public class InlineTextNode extends BaseInlineNode implements InlineNode {
 
-	private String literal;
+	private CharSequence literal;
+	private StringBuilder literalBuilder;
+	private StringBuilder prefixBuilder;
 	
 	public String literal() {
-		return literal;
+		CharSequence literal = literalSequence();
+		if (literal instanceof SourceSlice)
+			literal = literal.toString();
+		return (String) literal;
 	}
 	
-	public void literal(String literal) {
-		this.literal = literal;
+	/*
+	 * Reading doesn't change the node; a literal still kept in builders
+	 * is put together on every call until finishLiteral() is called.
+	 */
+	public CharSequence literalSequence() {
+		if (prefixBuilder == null && literalBuilder == null)
+			return literal;
+		StringBuilder sb = new StringBuilder();
+		if (prefixBuilder != null)
+			for (int i = prefixBuilder.length()-1; i >= 0; i--)
+				sb.append(prefixBuilder.charAt(i));
+		if (literalBuilder != null)
+			sb.append(literalBuilder);
+		else if (literal != null)
+			sb.append(literal);
+		return sb.toString();
+	}
+	
+	/*
+	 * Turns the builders into the final literal, so the node is only
+	 * read from then on. Called by the inline parser when it's done.
+	 */
+	public void finishLiteral() {
+		if (prefixBuilder == null && literalBuilder == null) return;
+		literal = literalSequence();
+		literalBuilder = null;
+		prefixBuilder = null;
+	}
+	
+	public void literal(CharSequence literal) {
+		this.literal = SourceSlice.retain(literal);
+		literalBuilder = null;
+		prefixBuilder = null;
+	}
+	
+	public void appendLiteral(CharSequence literal) {
+		if (literalBuilder == null) {
+			if (this.literal instanceof SourceSlice) {
+				SourceSlice joined = ((SourceSlice) this.literal).join(literal);
+				if (joined != null) {
+					this.literal = joined;
+					return;
+				}
+			}
+			literalBuilder = new StringBuilder();
+			if (this.literal != null)
+				literalBuilder.append(this.literal);
+		}
+		literalBuilder.append(literal);
+	}
+	
+	public void prependLiteral(CharSequence literal) {
+		// the prefix is kept reversed so repeated prepends stay linear
+		if (prefixBuilder == null)
+			prefixBuilder = new StringBuilder();
+		for (int i = literal.length()-1; i >= 0; i--)
+			prefixBuilder.append(literal.charAt(i));
 	}
 }
@@ -26,5 +26,16 @@ public interface Node {
 	void childs(Deque<Node> childs);
 	Node parent();
 	void parent(Node parent);
+	Node firstChild();
+	Node lastChild();
+	Node next();
+	Node prev();
+	void appendChild(Node child);
+	void prependChild(Node child);
+	void insertAfter(Node sibling);
+	void insertBefore(Node sibling);
+	void unlink();
+	void replaceWith(Node node);
+	boolean hasAttr();
 	Map<String,String> attr();
 }
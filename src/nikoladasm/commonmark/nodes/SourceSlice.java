@@ -0,0 +1,97 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.nodes;
+
+/*
+ * Immutable view of a range of the parsed input. Literals and block
+ * content point into the input string instead of holding copies of it.
+ */
+public final class SourceSlice implements CharSequence {
+
+	private final String source;
+	private final int start;
+	private final int end;
+
+	public SourceSlice(String source, int start, int end) {
+		if (start < 0 || end > source.length() || start > end)
+			throw new IndexOutOfBoundsException("begin " + start + ", end " + end +
+				", length " + source.length());
+		this.source = source;
+		this.start = start;
+		this.end = end;
+	}
+	
+	/*
+	 * Returns the sequence itself if it can't change later, a String
+	 * copy of it otherwise.
+	 */
+	public static CharSequence retain(CharSequence sequence) {
+		if (sequence == null || sequence instanceof String || sequence instanceof SourceSlice)
+			return sequence;
+		return sequence.toString();
+	}
+	
+	public String source() {
+		return source;
+	}
+	
+	public int start() {
+		return start;
+	}
+	
+	public int end() {
+		return end;
+	}
+	
+	/*
+	 * Returns the slice extended by next if next is a slice of the same
+	 * source starting where this one ends, null otherwise.
+	 */
+	public SourceSlice join(CharSequence next) {
+		if (!(next instanceof SourceSlice)) return null;
+		SourceSlice slice = (SourceSlice) next;
+		if (slice.source != source || slice.start != end) return null;
+		return new SourceSlice(source, start, slice.end);
+	}
+	
+	@Override
+	public int length() {
+		return end - start;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= end - start)
+			throw new IndexOutOfBoundsException("index " + index + ", length " + (end - start));
+		return source.charAt(start + index);
+	}
+
+	@Override
+	public SourceSlice subSequence(int begin, int end) {
+		if (begin < 0 || end > this.end - start || begin > end)
+			throw new IndexOutOfBoundsException("begin " + begin + ", end " + end +
+				", length " + (this.end - start));
+		return new SourceSlice(source, start + begin, start + end);
+	}
+
+	@Override
+	public String toString() {
+		return source.substring(start, end);
+	}
+}
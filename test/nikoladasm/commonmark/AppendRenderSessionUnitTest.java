@@ -0,0 +1,118 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class AppendRenderSessionUnitTest {
+
+	private static final String[] INPUTS = {
+		"# Title 😀\r\n\r\n- a\r- *b*\n\n[c] texté\n\n[c]: /url\n    code",
+		"Some [link][x] and text\nover lines\n\n> quote [x]\n> more\n\n[x]: /a \"t\"\n[y]: /b\n\n```\n[x]\n```\n",
+		"a\n-\n\nb\n===\n\n1. one\n\n   two\n2. three\n\n<div>\n*html*\n</div>\n\n[p]\n\n[p]:\n/later\n",
+		"***strong* emph** `code` <http://a.b> ![img][] text\n\n[img]: /i.png\n\n| a |\n\n---\n",
+	};
+	
+	private static void assertSameAsFullParse(HtmlRenderer renderer, String input, int size) {
+		Parser parser = Parser.getInstance();
+		AppendRenderSession session = new AppendRenderSession(Parser::getInstance, renderer);
+		for (int i = 0; i < input.length(); i += size) {
+			String prefix = input.substring(0, Math.min(input.length(), i + size));
+			session.append(input.substring(i, prefix.length()));
+			assertThat("chunk size " + size + " at " + prefix.length(),
+				session.html(), is(equalTo(renderer.render(parser.parse(prefix)))));
+		}
+		session.finish();
+		assertThat("chunk size " + size, session.html(),
+			is(equalTo(renderer.render(parser.parse(input)))));
+	}
+	
+	@Test
+	public void shouldBeSameOutputAsFullParseAfterEachAppend() {
+		HtmlRenderer renderer = new HtmlRenderer();
+		for (String input : INPUTS)
+			for (int size = 1; size <= 9; size++)
+				assertSameAsFullParse(renderer, input, size);
+	}
+	
+	@Test
+	public void shouldBeSameSourcePositionsAsFullParse() {
+		HtmlRenderer renderer = HtmlRenderer.builder().sourcepos(true).build();
+		for (String input : INPUTS)
+			assertSameAsFullParse(renderer, input, 3);
+	}
+	
+	@Test
+	public void shouldBeReportedOnlyChangedBlocks() {
+		AppendRenderSession session = new AppendRenderSession();
+		AppendRenderSession.Update update = session.append("# a\n\nb");
+		assertThat(update.changed(), is(equalTo(new int[]{0, 1})));
+		assertThat(update.blockCount(), is(2));
+		update = session.append("c d");
+		assertThat(update.changed(), is(equalTo(new int[]{1})));
+		assertThat(session.html(1), is(equalTo("<p>bc d</p>\n")));
+		update = session.append("\n\n");
+		assertThat(update.changed(), is(equalTo(new int[0])));
+		update = session.append("e");
+		assertThat(update.changed(), is(equalTo(new int[]{2})));
+		assertThat(update.blockCount(), is(3));
+	}
+	
+	@Test
+	public void shouldBeRenderedAgainBlocksUsingLaterDefinitions() {
+		AppendRenderSession session = new AppendRenderSession();
+		session.append("[a]\n\nb\n\n");
+		assertThat(session.html(0), is(equalTo("<p>[a]</p>\n")));
+		AppendRenderSession.Update update = session.append("[a]: /u");
+		assertThat(update.changed(), is(equalTo(new int[]{0})));
+		assertThat(session.html(0), is(equalTo("<p><a href=\"/u\">a</a></p>\n")));
+		update = session.append("rl\n\nc");
+		assertThat(update.changed(), is(equalTo(new int[]{0, 2})));
+		assertThat(session.html(0), is(equalTo("<p><a href=\"/url\">a</a></p>\n")));
+		assertThat(session.blockCount(), is(3));
+	}
+	
+	@Test
+	public void shouldBeSameOutputAfterListLeftByDefinition() {
+		HtmlRenderer renderer = new HtmlRenderer();
+		for (String input : ParseEventUnitTest.LIST_LEFT_BY_DEFINITION) {
+			AppendRenderSession session = new AppendRenderSession();
+			session.append(input);
+			assertThat(input, session.html(), is(equalTo(renderer.render(Parser.getInstance().parse(input)))));
+			for (int size = 1; size <= 3; size++)
+				assertSameAsFullParse(renderer, input, size);
+		}
+	}
+	
+	@Test
+	public void shouldBeFinishedOnce() {
+		AppendRenderSession session = new AppendRenderSession();
+		session.append("a");
+		session.finish();
+		assertThat(session.isFinished(), is(true));
+		assertThat(session.html(), is(equalTo("<p>a</p>\n")));
+		try {
+			session.append("b");
+			fail();
+		} catch (IllegalStateException e) {
+		}
+	}
+}
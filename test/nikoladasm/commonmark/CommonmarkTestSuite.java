@@ -28,12 +28,28 @@ import nikoladasm.commonmark.inlineparser.InlineParserTestSuite;
 		{UrlUtilUnitTest.class,
 		UnescapingStringUnitTest.class,
 		InlineParserTestSuite.class,
+		NodeUnitTest.class,
 		HtmlRendererUnitTest.class,
+		ParserPoolUnitTest.class,
+		ParseEventUnitTest.class,
+		FeedUnitTest.class,
+		AppendRenderSessionUnitTest.class,
+		IncrementalParserUnitTest.class,
+		ParallelInlineUnitTest.class,
+		ParallelBlockUnitTest.class,
+		PlainTextUnitTest.class,
+		StringInputUnitTest.class,
+		SourceSliceUnitTest.class,
+		MappedInputUnitTest.class,
+		Utf8ChannelOutputUnitTest.class,
 		InlineIntegrationTest.class,
 		BlockParserTestSuite.class,
 		BlockIntegrationTest.class,
 		IntegrationTest.class,
-		MarkdownFileTest.class}
+		MarkdownFileTest.class,
+		EventSinkFileTest.class,
+		IncrementalParserFileTest.class,
+		PathologicalInputTest.class}
 )
 @RunWith(Suite.class)
 public class CommonmarkTestSuite {
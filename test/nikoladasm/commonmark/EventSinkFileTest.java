@@ -0,0 +1,99 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark;
+
+import static nikoladasm.commonmark.TestDataUtil.*;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import nikoladasm.commonmark.TestDataUtil.TestDataContainer;
+
+@RunWith(Parameterized.class)
+public class EventSinkFileTest {
+
+	private static Parser p = Parser.getInstance();
+	private static HtmlRenderer r = HtmlRenderer.builder().sourcepos(true).build();
+
+	@Parameters(name = "{index}: {2}")
+	public static Collection<Object[]> data() throws Exception {
+		List<TestDataContainer> inTestData =
+			readCompressedTestData("testdata/input.zip", "testdata/output.zip");
+		List<Object[]> testData = new LinkedList<>();
+		inTestData.forEach(data -> {
+			testData.add(new String[]{data.input, data.output, data.name});
+		});
+		return testData;
+	}
+
+	@Parameter(0)
+	public String input;
+	
+	@Parameter(1)
+	public String output;
+	
+	@Parameter(2)
+	public String name;
+	
+	@Test
+	public void test() {
+		StringBuilder sb = new StringBuilder();
+		p.parse(input, r.sink(sb));
+		assertThat(sb.toString(), is(equalTo(output)));
+	}
+	
+	@Test
+	public void pullTest() {
+		StringBuilder sb = new StringBuilder();
+		ParseEventHandler sink = r.sink(sb);
+		Iterator<ParseEvent> events = p.events(input);
+		while (events.hasNext())
+			events.next().dispatch(sink);
+		assertThat(sb.toString(), is(equalTo(output)));
+	}
+	
+	@Test
+	public void feedTest() {
+		StringBuilder sb = new StringBuilder();
+		p.start(r.sink(sb));
+		for (int i = 0; i < input.length(); i += 7)
+			p.feed(input.substring(i, Math.min(input.length(), i + 7)));
+		p.finish();
+		assertThat(sb.toString(), is(equalTo(output)));
+	}
+	
+	@Test
+	public void appendSessionTest() {
+		AppendRenderSession session = new AppendRenderSession(Parser::getInstance, r);
+		for (int i = 0; i < input.length(); i += 7)
+			session.append(input.substring(i, Math.min(input.length(), i + 7)));
+		session.finish();
+		assertThat(session.html(), is(equalTo(output)));
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.nio.CharBuffer;
+
+import org.junit.Test;
+
+public class FeedUnitTest {
+
+	private static final String INPUT =
+		"# Title 😀\r\n\r\n- a\r- *b*\n\n[c] texté\n\n[c]: /url\n    code";
+	
+	private static HtmlRenderer renderer = new HtmlRenderer();
+	
+	private static String feedBy(Parser parser, String input, int size) {
+		for (int i = 0; i < input.length(); i += size)
+			parser.feed(input.substring(i, Math.min(input.length(), i + size)));
+		return renderer.render(parser.finish());
+	}
+	
+	@Test
+	public void shouldBeSameOutputForAnyChunkSize() {
+		String expected = renderer.render(Parser.getInstance().parse(INPUT));
+		Parser parser = Parser.getInstance();
+		for (int size = 1; size <= INPUT.length(); size++)
+			assertThat("chunk size " + size, feedBy(parser, INPUT, size), is(equalTo(expected)));
+	}
+	
+	@Test
+	public void shouldBeJoinedSurrogatePairSplitAcrossChunks() {
+		Parser parser = Parser.getInstance();
+		parser.feed("a \uD83D");
+		parser.feed("\uDE00 b");
+		assertThat(renderer.render(parser.finish()), is(equalTo("<p>a 😀 b</p>\n")));
+	}
+	
+	@Test
+	public void shouldBeSkippedLineFeedAfterCarriageReturnInPreviousChunk() {
+		Parser parser = Parser.getInstance();
+		parser.feed("a\r");
+		parser.feed("\nb\r");
+		parser.feed("");
+		parser.feed("\n\nc");
+		assertThat(renderer.render(parser.finish()), is(equalTo("<p>a\nb</p>\n<p>c</p>\n")));
+	}
+	
+	@Test
+	public void shouldBeAcceptedCharBuffers() {
+		Parser parser = Parser.getInstance();
+		CharBuffer buffer = CharBuffer.allocate(8);
+		buffer.put("*a* b\nc").flip();
+		parser.feed(buffer);
+		assertThat(renderer.render(parser.finish()), is(equalTo("<p><em>a</em> b\nc</p>\n")));
+	}
+	
+	@Test
+	public void shouldBeEmptyDocumentWithoutInput() {
+		assertThat(renderer.render(Parser.getInstance().finish()), is(equalTo("")));
+	}
+	
+	@Test
+	public void shouldBeEmittedEventsWhileFeeding() {
+		Parser parser = Parser.getInstance();
+		StringBuilder sb = new StringBuilder();
+		parser.start(renderer.sink(sb));
+		parser.feed("first paragraph\n\nsec");
+		assertThat(sb.toString(), is(equalTo("<p>first paragraph</p>\n")));
+		parser.feed("ond\n");
+		assertThat(parser.finish(), is(nullValue()));
+		assertThat(sb.toString(), is(equalTo("<p>first paragraph</p>\n<p>second</p>\n")));
+	}
+	
+	@Test
+	public void shouldBeEmittedEventsAfterListLeftByDefinition() {
+		Parser parser = Parser.getInstance();
+		for (String input : ParseEventUnitTest.LIST_LEFT_BY_DEFINITION) {
+			String expected = renderer.render(Parser.getInstance().parse(input));
+			for (int size = 1; size <= input.length(); size++) {
+				StringBuilder sb = new StringBuilder();
+				parser.start(renderer.sink(sb));
+				for (int i = 0; i < input.length(); i += size)
+					parser.feed(input.substring(i, Math.min(input.length(), i + size)));
+				parser.finish();
+				assertThat("chunk size " + size, sb.toString(), is(equalTo(expected)));
+			}
+		}
+	}
+}
@@ -21,6 +21,14 @@ package nikoladasm.commonmark;
 import static org.junit.Assert.*;
 import static org.hamcrest.CoreMatchers.*;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Test;
 
 import nikoladasm.commonmark.nodes.*;
@@ -184,4 +192,74 @@ public class HtmlRendererUnitTest {
 		String out = "<!--@ -->\n";
 		assertThat(renderer.render(n), is(equalTo(out)));
 	}
+
+	@Test
+	public void shouldBeFlushedAfterEachTopLevelBlock() {
+		Node ast = Parser.getInstance().parse("# title\n\ntext *em*\n\n> quote\n");
+		StringBuilder flushed = new StringBuilder();
+		StringWriter writer = new StringWriter() {
+			@Override
+			public void flush() {
+				flushed.append(getBuffer().length()).append(' ');
+			}
+		};
+		HtmlRenderer renderer = HtmlRenderer.builder().flush(true).build();
+		renderer.render(ast, writer);
+		String out = "<h1>title</h1>\n<p>text <em>em</em></p>\n<blockquote>\n<p>quote</p>\n</blockquote>\n";
+		assertThat(writer.toString(), is(equalTo(out)));
+		assertThat(renderer.render(ast), is(equalTo(out)));
+		assertThat(flushed.toString(), is(equalTo("15 39 79 ")));
+	}
+
+	@Test(expected = CommonMarkParserException.class)
+	public void shouldBeWrappedOutputException() {
+		InlineTextNode n = new InlineTextNode();
+		n.literal("text");
+		renderer.render(n, new Appendable() {
+			@Override
+			public Appendable append(CharSequence csq) throws IOException {
+				throw new IOException();
+			}
+			@Override
+			public Appendable append(CharSequence csq, int start, int end) throws IOException {
+				throw new IOException();
+			}
+			@Override
+			public Appendable append(char c) throws IOException {
+				throw new IOException();
+			}
+		});
+	}
+
+	@Test
+	public void shouldBeBuiltWithConfiguration() {
+		HtmlRenderer renderer = HtmlRenderer.builder()
+			.softbreak("<br />\n").safe(true).sourcepos(true).flush(true).build();
+		assertThat(renderer.softbreak(), is(equalTo("<br />\n")));
+		assertThat(renderer.isSafe(), is(true));
+		assertThat(renderer.isSourcepos(), is(true));
+		assertThat(renderer.isFlush(), is(true));
+		assertThat(renderer.render(Parser.getInstance().parse("a\n[b](javascript:c)\n")),
+			is(equalTo("<p data-sourcepos=\"1:1-2:17\">a<br />\n<a>b</a></p>\n")));
+		HtmlRenderer defaults = new HtmlRenderer();
+		assertThat(defaults.softbreak(), is(equalTo("\n")));
+		assertThat(defaults.isSafe() || defaults.isSourcepos() || defaults.isFlush(), is(false));
+	}
+	
+	@Test
+	public void shouldBeSameOutputFromConcurrentThreads() throws Exception {
+		Node ast = Parser.getInstance().parse(
+			"# title\n\n- *a* [b](/c \"d\")\n- ![e](/f)\n\n```java\ncode\n```\n\n<div>x</div>\n");
+		String out = renderer.render(ast);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 400; i++)
+				results.add(executor.submit(() -> renderer.render(ast)));
+			for (Future<String> result : results)
+				assertThat(result.get(), is(equalTo(out)));
+		} finally {
+			executor.shutdown();
+		}
+	}
 }
@@ -0,0 +1,149 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+import nikoladasm.commonmark.nodes.BlockNode;
+import nikoladasm.commonmark.nodes.Node;
+
+public class IncrementalParserUnitTest {
+
+	private static final String INPUT =
+		"# Title\n\nfirst *para*\ngraph\n\n- a\n- b\n\n  c\n\n> quote [x]\n\n[x]: /url\n\nlast\n";
+	
+	private static HtmlRenderer renderer = HtmlRenderer.builder().sourcepos(true).build();
+	
+	private static void assertSameAsFullParse(IncrementalParser parser) {
+		assertThat(renderer.render(parser.document()),
+			is(equalTo(renderer.render(Parser.getInstance().parse(parser.text())))));
+	}
+	
+	@Test
+	public void shouldBeReparsedOnlyBlocksAroundEdit() {
+		IncrementalParser parser = new IncrementalParser();
+		parser.parse(INPUT);
+		parser.edit(4, 4, "graph *too*\n");
+		assertThat(parser.isFullParse(), is(false));
+		assertThat(parser.reparsedLines(), is(3));
+		assertSameAsFullParse(parser);
+	}
+	
+	@Test
+	public void shouldBeShiftedLinesOfFollowingBlocks() {
+		IncrementalParser parser = new IncrementalParser();
+		parser.parse(INPUT);
+		Node last = parser.document().lastChild();
+		parser.edit(4, 3, "inserted\nlines\n");
+		assertThat(parser.isFullParse(), is(false));
+		assertThat(parser.document().lastChild(), is(sameInstance(last)));
+		assertThat(((BlockNode) last).startLine(), is(17));
+		assertSameAsFullParse(parser);
+		parser.edit(4, 5, "");
+		assertThat(((BlockNode) last).startLine(), is(15));
+		assertSameAsFullParse(parser);
+	}
+	
+	@Test
+	public void shouldBeMergedBlocksWhenBlankLineRemoved() {
+		IncrementalParser parser = new IncrementalParser();
+		parser.parse(INPUT);
+		parser.edit(8, 8, "");
+		assertThat(parser.isFullParse(), is(false));
+		assertSameAsFullParse(parser);
+		parser.edit(5, 5, "");
+		assertSameAsFullParse(parser);
+	}
+	
+	@Test
+	public void shouldBeReparsedUpToEndWhenFenceOpened() {
+		IncrementalParser parser = new IncrementalParser();
+		parser.parse(INPUT);
+		parser.edit(14, 14, "```\n");
+		assertThat(parser.isFullParse(), is(false));
+		assertThat(parser.reparsedLines(), is(5));
+		assertSameAsFullParse(parser);
+		parser.edit(2, 2, "\n");
+		assertSameAsFullParse(parser);
+	}
+	
+	@Test
+	public void shouldBeFullParseWhenDefinitionsChanged() {
+		IncrementalParser parser = new IncrementalParser();
+		parser.parse(INPUT);
+		parser.edit(13, 13, "[x]: /other\n");
+		assertThat(parser.isFullParse(), is(true));
+		assertSameAsFullParse(parser);
+		parser.edit(15, 15, "[y]: /new\n");
+		assertThat(parser.isFullParse(), is(true));
+		assertSameAsFullParse(parser);
+		parser.edit(11, 11, "> quote [y]\n");
+		assertThat(parser.isFullParse(), is(false));
+		assertSameAsFullParse(parser);
+	}
+	
+	@Test
+	public void shouldBeEditedAtDocumentBounds() {
+		IncrementalParser parser = new IncrementalParser();
+		parser.parse(INPUT);
+		parser.edit(1, 0, "intro\n");
+		assertSameAsFullParse(parser);
+		parser.edit(parser.lineCount()+1, parser.lineCount(), "- appended\n");
+		assertSameAsFullParse(parser);
+		parser.edit(1, parser.lineCount(), "");
+		assertThat(parser.document().firstChild(), is(nullValue()));
+		parser.edit(1, 0, "new\n");
+		assertSameAsFullParse(parser);
+	}
+	
+	@Test
+	public void shouldBeReparsedFromRestartLineBeforeIndentedLine() {
+		IncrementalParser parser = new IncrementalParser();
+		parser.parse("- \n\n    1\n");
+		parser.edit(4, 3, "");
+		assertSameAsFullParse(parser);
+		parser.parse("- \n\n    1\n    1\n");
+		parser.edit(4, 4, "a\n");
+		assertSameAsFullParse(parser);
+		assertThat(renderer.render(parser.document()), containsString("<p data-sourcepos=\"3:5-4:1\">1\na</p>"));
+	}
+	
+	@Test
+	public void shouldBeReparsedUpToRestartLineAfterEdit() {
+		IncrementalParser parser = new IncrementalParser();
+		parser.parse("- \n  \n    1\n[x]\n- \n");
+		parser.edit(1, 1, "");
+		assertSameAsFullParse(parser);
+		assertThat(renderer.render(parser.document()), containsString("<h2 data-sourcepos=\"3:1-4:2\">[x]</h2>"));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldBeRejectedRangeOutsideDocument() {
+		IncrementalParser parser = new IncrementalParser();
+		parser.parse("a\n");
+		parser.edit(2, 2, "b\n");
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void shouldBeRejectedEditBeforeParse() {
+		new IncrementalParser().edit(1, 0, "a\n");
+	}
+}
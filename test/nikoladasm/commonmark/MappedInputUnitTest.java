@@ -0,0 +1,151 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedInputUnitTest {
+
+	private static final String PIECE =
+		"# Title é中😀\n\nSome *text* with `code`\r\nover lines.\n\n" +
+		"```\nfenced\r\n\ncode\n```\n\n> quote\rlazy\n\n<div>\nhtml\n</div>\n\n" +
+		"    indented\n\tcode\n\n[ref]: /url\n\n- [ref]\n- item\u0000\n\n";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private Path file(String content) throws IOException {
+		Path path = folder.newFile().toPath();
+		Files.write(path, content.getBytes(UTF_8));
+		return path;
+	}
+	
+	private static String large() {
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < 3 * MappedInput.CHUNK_SIZE)
+			sb.append(PIECE);
+		return sb.toString();
+	}
+	
+	private static String render(String input) {
+		return new HtmlRenderer().render(Parser.getInstance().parse(input));
+	}
+	
+	@Test
+	public void shouldBeSameOutputAsStringInput() throws IOException {
+		String[] inputs = {"", "\n", "\r\n", "no newline", "a\rb\r", PIECE, large()};
+		for (String input : inputs) {
+			Path path = file(input);
+			assertThat(new HtmlRenderer().render(Parser.getInstance().parse(path)), is(render(input)));
+		}
+	}
+	
+	@Test
+	public void shouldBeSameOutputForBytes() {
+		String[] inputs = {"", "\n", "\r\n", "no newline", "a\rb\r", "plain prose\n\nonly",
+			PIECE, large()};
+		HtmlRenderer renderer = new HtmlRenderer();
+		for (String input : inputs) {
+			byte[] bytes = input.getBytes(UTF_8);
+			assertThat(renderer.render(Parser.getInstance().parse(bytes)), is(render(input)));
+			assertThat(renderer.render(bytes, Parser.getInstance()), is(render(input).getBytes(UTF_8)));
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			renderer.render(bytes, Parser.getInstance(), Channels.newChannel(out),
+				ByteBuffer.allocateDirect(100));
+			assertThat(out.toByteArray(), is(render(input).getBytes(UTF_8)));
+		}
+	}
+	
+	@Test
+	public void shouldSplitBytesAtLineEnds() throws IOException {
+		String input = large().replace("\n", "\r\n");
+		byte[] bytes = ("xx" + input + "xx").getBytes(UTF_8);
+		MappedInput mapped = new MappedInput(ByteBuffer.wrap(bytes, 2, bytes.length - 4));
+		StringBuilder sb = new StringBuilder();
+		String chunk;
+		int chunks = 0;
+		while ((chunk = mapped.nextChunk()) != null) {
+			if (sb.length() > 0)
+				assertThat(sb.charAt(sb.length()-1) == '\r' && chunk.charAt(0) == '\n', is(false));
+			sb.append(chunk);
+			chunks++;
+		}
+		assertThat(sb.toString(), is(input));
+		assertThat(chunks > 1, is(true));
+	}
+	
+	@Test
+	public void shouldBeSameOutputWithEvents() throws IOException {
+		String input = large();
+		StringBuilder sb = new StringBuilder();
+		Parser.getInstance().parse(file(input), new HtmlRenderer().sink(sb));
+		assertThat(sb.toString(), is(render(input)));
+	}
+	
+	@Test
+	public void shouldSplitChunksAtLineEnds() throws IOException {
+		String input = large().replace("\n", "\r\n");
+		try (MappedInput mapped = new MappedInput(file(input), 4096)) {
+			StringBuilder sb = new StringBuilder();
+			String chunk;
+			int chunks = 0;
+			while ((chunk = mapped.nextChunk()) != null) {
+				if (sb.length() > 0) {
+					char last = sb.charAt(sb.length()-1);
+					assertThat(last == '\n' || last == '\r', is(true));
+					assertThat(last == '\r' && chunk.charAt(0) == '\n', is(false));
+				}
+				sb.append(chunk);
+				chunks++;
+			}
+			assertThat(sb.toString(), is(input));
+			assertThat(chunks > 1, is(true));
+		}
+	}
+	
+	@Test
+	public void shouldReadLinesLongerThanChunk() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 2 * MappedInput.CHUNK_SIZE; i++)
+			sb.append((char) ('a' + i % 26));
+		String input = "para\n\n" + sb + "\n\n```\n" + sb + "\n```\n";
+		try (MappedInput mapped = new MappedInput(file(input), 4096)) {
+			assertThat(mapped.nextChunk().length() > 2 * MappedInput.CHUNK_SIZE, is(true));
+		}
+		assertThat(new HtmlRenderer().render(Parser.getInstance().parse(file(input))), is(render(input)));
+	}
+	
+	@Test(expected = CommonMarkParserException.class)
+	public void shouldFailOnMissingFile() {
+		Parser.getInstance().parse(folder.getRoot().toPath().resolve("missing.md"));
+	}
+}
@@ -27,7 +27,9 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
+import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -41,18 +43,21 @@ import nikoladasm.commonmark.nodes.Node;
 @RunWith(Parameterized.class)
 public class MarkdownFileTest {
 
-	private static InlineParser ip = new InlineParserImpl(new CharReaderImpl());
-	private static Parser p = new Parser(ip);
-	private static HtmlRenderer r = new HtmlRenderer();
+	private static ForkJoinPool pool = new ForkJoinPool(4);
+	private static Parser sequential = Parser.getInstance();
+	private static Parser parallelInline = Parser.getInstance();
+	private static Parser parallelBlock = Parser.getInstance();
+	private static HtmlRenderer r = HtmlRenderer.builder().sourcepos(true).build();
 
-	@Parameters(name = "{index}: {2}")
+	@Parameters(name = "{index}: {2} {3}")
 	public static Collection<Object[]> data() throws Exception {
 		List<TestDataContainer> inTestData =
 			readCompressedTestData("testdata/input.zip", "testdata/output.zip");
 		List<Object[]> testData = new LinkedList<>();
-		inTestData.forEach(data -> {
-			testData.add(new String[]{data.input, data.output, data.name});
-		});
+		for (String parser : new String[]{"sequential", "parallelInline", "parallelBlock"})
+			inTestData.forEach(data -> {
+				testData.add(new String[]{data.input, data.output, data.name, parser});
+			});
 		return testData;
 	}
 
@@ -65,14 +70,33 @@ public class MarkdownFileTest {
 	@Parameter(2)
 	public String name;
 
+	@Parameter(3)
+	public String parser;
+
 	@BeforeClass
 	public static void genSourcePos() {
-		r.sourcepos(true);
+		parallelInline.parallelInlineThreshold(0);
+		parallelInline.forkJoinPool(pool);
+		parallelBlock.parallelBlockThreshold(0);
+		parallelBlock.forkJoinPool(pool);
+	}
+	
+	@AfterClass
+	public static void shutdownPool() {
+		pool.shutdown();
+	}
+	
+	private Parser parser() {
+		switch (parser) {
+			case "parallelInline" : return parallelInline;
+			case "parallelBlock" : return parallelBlock;
+			default : return sequential;
+		}
 	}
 	
 	@Test
 	public void test() throws IOException {
-		Node node = p.parse(input);
+		Node node = parser().parse(input);
 		String output = r.render(node);
 		String expected = this.output;
 		assertThat(output, is(equalTo(expected)));
@@ -0,0 +1,136 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import static java.util.Arrays.asList;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.junit.Test;
+
+import nikoladasm.commonmark.nodes.*;
+
+public class NodeUnitTest {
+
+	private static List<Node> childs(Node node) {
+		List<Node> result = new ArrayList<>();
+		for (Node child = node.firstChild(); child != null; child = child.next())
+			result.add(child);
+		return result;
+	}
+	
+	@Test
+	public void shouldBeLinkedSiblings() {
+		Node parent = new ParagraphBlockNode(1, 1);
+		Node a = new InlineTextNode();
+		Node b = new InlineSoftBreakNode();
+		Node c = new InlineTextNode();
+		parent.appendChild(b);
+		parent.appendChild(c);
+		parent.prependChild(a);
+		assertThat(childs(parent), is(equalTo(asList(a, b, c))));
+		assertThat(parent.lastChild(), is(sameInstance(c)));
+		assertThat(c.prev(), is(sameInstance(b)));
+		assertThat(b.parent(), is(sameInstance(parent)));
+		b.unlink();
+		assertThat(childs(parent), is(equalTo(asList(a, c))));
+		assertThat(b.parent(), is(nullValue()));
+		a.insertAfter(b);
+		c.insertBefore(new InlineLineBreakNode());
+		assertThat(childs(parent).size(), is(equalTo(4)));
+		assertThat(parent.firstChild().next(), is(sameInstance(b)));
+	}
+	
+	@Test
+	public void shouldBeMovedWhenAppendedToOtherParent() {
+		Node first = new ParagraphBlockNode(1, 1);
+		Node second = new ParagraphBlockNode(2, 1);
+		Node text = new InlineTextNode();
+		first.appendChild(text);
+		second.appendChild(text);
+		assertThat(first.firstChild(), is(nullValue()));
+		assertThat(first.lastChild(), is(nullValue()));
+		assertThat(second.firstChild(), is(sameInstance(text)));
+		assertThat(text.parent(), is(sameInstance(second)));
+	}
+	
+	@Test
+	public void shouldBeDequeViewOverChilds() {
+		Node parent = new ParagraphBlockNode(1, 1);
+		Deque<Node> childs = parent.childs();
+		Node a = new InlineTextNode();
+		Node b = new InlineTextNode();
+		childs.addLast(b);
+		childs.addFirst(a);
+		assertThat(parent.firstChild(), is(sameInstance(a)));
+		assertThat(childs.size(), is(equalTo(2)));
+		assertThat(childs.peekLast(), is(sameInstance(b)));
+		Node other = new ParagraphBlockNode(2, 1);
+		other.childs().addAll(parent.childs());
+		assertThat(parent.childs().isEmpty(), is(true));
+		assertThat(childs(other), is(equalTo(asList(a, b))));
+		assertThat(other.childs().removeFirst(), is(sameInstance(a)));
+		assertThat(childs(other), is(equalTo(asList(b))));
+	}
+	
+	@Test
+	public void shouldBeCreatedAttributesLazily() {
+		Node node = new InlineTextNode();
+		assertThat(node.hasAttr(), is(false));
+		node.attr().put("class", "x");
+		assertThat(node.hasAttr(), is(true));
+	}
+	
+	@Test
+	public void shouldNotChangeTextNodeWhenRead() {
+		InlineTextNode text = new InlineTextNode();
+		text.literal("b");
+		text.appendLiteral("c");
+		text.prependLiteral("a");
+		assertThat(text.literal(), is(equalTo("abc")));
+		assertThat(text.literalSequence().toString(), is(equalTo("abc")));
+		text.appendLiteral("d");
+		assertThat(text.literal(), is(equalTo("abcd")));
+		text.finishLiteral();
+		assertThat(text.literalSequence(), is(sameInstance(text.literalSequence())));
+		assertThat(text.literal(), is(equalTo("abcd")));
+	}
+	
+	private static void assertFinished(Node node) {
+		for (Node child = node.firstChild(); child != null; child = child.next()) {
+			if (child instanceof InlineTextNode)
+				assertThat(((InlineTextNode) child).literalSequence(),
+					is(sameInstance(((InlineTextNode) child).literalSequence())));
+			if (child instanceof BlockNode)
+				assertThat(((BlockNode) child).stringContentSequence(),
+					is(sameInstance(((BlockNode) child).stringContentSequence())));
+			assertFinished(child);
+		}
+	}
+	
+	@Test
+	public void shouldBeFinishedAfterParse() {
+		Node ast = Parser.getInstance().parse(
+			"a *b [c **d _e\n> f `g\n> h\n\n- i ![j k* l\n  m\n");
+		assertFinished(ast);
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+public class ParallelBlockUnitTest {
+
+	private static final ForkJoinPool POOL = new ForkJoinPool(4);
+	
+	private static final String[] PARTS = {
+		"# Title\n\ntext [a] and [b]\n\n",
+		"- item\n\n  continued\n\n- next\n\nafter list\n\n",
+		"```\ncode\n\nstill code\n```\n\n",
+		"~~~~\n\n```\n\n~~~~\n\n",
+		"<!--\n\ncomment\n\n-->\n\n",
+		"<pre>\n\nraw\n\n</pre>\n\n",
+		"<div>\n\n*html*\n\n</div>\n\n",
+		"> quote\n\n> another\n\n",
+		"1. one\n\n2. two\n\n",
+		"    indented\n\n    code\n\nplain\n\n",
+		"[a]: /first\n\n[a]: /second\n\n[b]:\n/b \"title\"\n\n",
+		"para\r\n\r\nwith crlf\r\n\r\n",
+		"<script>\n\n</script> tail\n\n",
+	};
+	
+	@AfterClass
+	public static void shutdownPool() {
+		POOL.shutdown();
+	}
+	
+	private static Parser parallel(Parser parser) {
+		parser.parallelBlockThreshold(0);
+		parser.forkJoinPool(POOL);
+		return parser;
+	}
+	
+	private static Parser parallelParser() {
+		return parallel(Parser.getInstance());
+	}
+	
+	private static void assertSameAsSequential(String input) {
+		HtmlRenderer renderer = HtmlRenderer.builder().sourcepos(true).build();
+		assertThat(renderer.render(parallelParser().parse(input)),
+			is(equalTo(renderer.render(Parser.getInstance().parse(input)))));
+	}
+	
+	@Test
+	public void shouldBeSameOutputAsSequentialParse() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 20; i++)
+			for (String part : PARTS)
+				sb.append(part);
+		assertSameAsSequential(sb.toString());
+	}
+	
+	@Test
+	public void shouldBeSameOutputForEveryPartAtEverySplit() {
+		for (String first : PARTS)
+			for (String second : PARTS)
+				assertSameAsSequential(first + second + first);
+	}
+	
+	@Test
+	public void shouldBeSameOutputForUnclosedBlocksAtEnd() {
+		assertSameAsSequential("a\n\n```\nb\n\nc");
+		assertSameAsSequential("a\n\n- b\n\nc");
+		assertSameAsSequential("a\n\n<!--\n\nc");
+		assertSameAsSequential("");
+	}
+	
+	@Test
+	public void shouldBeSameOutputForPlainProse() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 50; i++)
+			sb.append("plain line ").append(i).append("\n\n");
+		assertSameAsSequential(sb.toString());
+	}
+	
+	private static String definitionsAndLinks() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 50; i++)
+			sb.append("[a___").append(i).append("]: /u").append(i).append("\n\n");
+		for (int i = 0; i < 50; i++)
+			sb.append("see [a_").append(i).append("]\n\n");
+		return sb.toString();
+	}
+	
+	private static InlineParser underscoreIsWhitespace() {
+		InlineParser ip = new InlineParserImpl(new CharReaderImpl());
+		ip.whitespaseCharFunc(c -> c == ' ' || c == '_' || c == '\n');
+		return ip;
+	}
+	
+	@Test
+	public void shouldUseWhitespaceFunctionInWorkers() {
+		String input = definitionsAndLinks();
+		HtmlRenderer renderer = new HtmlRenderer();
+		String sequential = renderer.render(new Parser(underscoreIsWhitespace()).parse(input));
+		assertThat(sequential, containsString("<a href=\"/u49\">a_49</a>"));
+		assertThat(renderer.render(parallel(new Parser(underscoreIsWhitespace())).parse(input)),
+			is(equalTo(sequential)));
+	}
+	
+	@Test
+	public void shouldParseSequentiallyWithOtherInlineParser() {
+		InlineParser ip = new InlineParserImpl(new CharReaderImpl()) {
+			@Override
+			public int parseReferences(String input) {
+				return 0;
+			}
+		};
+		String output = new HtmlRenderer().render(parallel(new Parser(ip)).parse(definitionsAndLinks()));
+		assertThat(output, containsString("<p>[a___49]: /u49</p>"));
+	}
+	
+	@Test
+	public void shouldBeSplitAfterBlankLinesOutsideFencesAndHtml() {
+		String input = "a\n\nb\n```\n\nc\n```\n\n<!--\n\nd -->\n\n- e\n\nf\n";
+		List<Integer> offsets = new ArrayList<>();
+		List<Integer> lineNumbers = new ArrayList<>();
+		new SplitScanner(input).split(1, offsets, lineNumbers);
+		assertThat(offsets, is(equalTo(Arrays.asList(0, 3, 17, 35))));
+		assertThat(lineNumbers, is(equalTo(Arrays.asList(1, 3, 9, 15))));
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import nikoladasm.commonmark.nodes.*;
+
+public class ParallelInlineUnitTest {
+
+	private static final ForkJoinPool POOL = new ForkJoinPool(4);
+	
+	private static final String INPUT;
+	
+	static {
+		StringBuilder sb = new StringBuilder("[a_b]: /u\n\n");
+		for (int i = 0; i < 50; i++)
+			sb.append("see [a___b] and *").append(i).append("*\n\n");
+		INPUT = sb.toString();
+	}
+	
+	@AfterClass
+	public static void shutdownPool() {
+		POOL.shutdown();
+	}
+	
+	private static String render(Parser parser, boolean parallel) {
+		if (parallel) {
+			parser.parallelInlineThreshold(0);
+			parser.forkJoinPool(POOL);
+		}
+		return new HtmlRenderer().render(parser.parse(INPUT));
+	}
+	
+	private static InlineParser underscoreIsWhitespace() {
+		InlineParser ip = new InlineParserImpl(new CharReaderImpl());
+		ip.whitespaseCharFunc(c -> c == ' ' || c == '_' || c == '\n');
+		return ip;
+	}
+	
+	@Test
+	public void shouldUseWhitespaceFunctionInWorkers() {
+		String sequential = render(new Parser(underscoreIsWhitespace()), false);
+		assertThat(sequential, containsString("<a href=\"/u\">a___b</a>"));
+		assertThat(render(new Parser(underscoreIsWhitespace()), true), is(equalTo(sequential)));
+	}
+	
+	@Test
+	public void shouldParseSequentiallyWithOtherInlineParser() {
+		InlineParser ip = new InlineParserImpl(new CharReaderImpl()) {
+			@Override
+			public void parseInline(BlockNode root) {
+				super.parseInline(root);
+				InlineTextNode mark = new InlineTextNode();
+				mark.literal("!");
+				root.appendChild(mark);
+			}
+		};
+		String output = render(new Parser(ip), true);
+		assertThat(output, containsString("<em>49</em>!</p>"));
+	}
+	
+	@Test
+	public void shouldUseInlineParserFactoryInWorkers() {
+		Parser parser = Parser.getInstance();
+		parser.inlineParserFactory(ParallelInlineUnitTest::underscoreIsWhitespace);
+		assertThat(render(parser, true), containsString("<a href=\"/u\">a___b</a>"));
+	}
+}
@@ -0,0 +1,255 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import static java.util.Arrays.asList;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import nikoladasm.commonmark.nodes.*;
+
+public class ParseEventUnitTest {
+
+	/* Lists whose only item lost its definition paragraph, closed by two blank lines */
+	static final String[] LIST_LEFT_BY_DEFINITION = {
+		"- [x]: /u\n\n\na\n",
+		"- [x]: /u\n\n\n\n",
+		"- [x]: /u\n\n\n> q\n",
+		"1. [x]: /u\n   \n\n - b\n\n\nc\n",
+	};
+	
+	private static class LinkCollector implements ParseEventHandler {
+		private final List<String> links = new ArrayList<>();
+		private int maxTopLevelBlocks;
+		
+		@Override
+		public void enterBlock(BlockNode block) {
+			Node parent = block.parent();
+			if (!(parent instanceof DocumentNode)) return;
+			int count = 0;
+			for (Node node = parent.firstChild(); node != null; node = node.next())
+				count++;
+			maxTopLevelBlocks = Math.max(maxTopLevelBlocks, count);
+		}
+		
+		@Override
+		public void link(String destination, String title) {
+			links.add(destination);
+		}
+	}
+	
+	private static class CountingReader extends Reader {
+		private final Reader reader;
+		private int read;
+		
+		private CountingReader(String input) {
+			reader = new StringReader(input);
+		}
+		
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			int count = reader.read(cbuf, off, Math.min(len, 16));
+			if (count > 0) read += count;
+			return count;
+		}
+		
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+	
+	private static String paragraphs(int count, String text) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++)
+			sb.append(text).append(' ').append(i).append("\n\n");
+		return sb.toString();
+	}
+	
+	@Test
+	public void shouldBeReportedLinksAndText() {
+		Parser parser = Parser.getInstance();
+		StringBuilder text = new StringBuilder();
+		List<String> links = new ArrayList<>();
+		parser.parse("# a [b](/x)\n\n> *c* [d]\n\n[d]: /y\n", new ParseEventHandler() {
+			@Override
+			public void text(String literal) {
+				text.append(literal);
+			}
+			
+			@Override
+			public void link(String destination, String title) {
+				links.add(destination);
+			}
+		});
+		assertThat(text.toString(), is(equalTo("a bc d")));
+		assertThat(links, is(equalTo(asList("/x", "/y"))));
+	}
+	
+	@Test
+	public void shouldBeEnteredAndExitedInDocumentOrder() {
+		List<String> events = new ArrayList<>();
+		Parser.getInstance().parse("- *a*\n", new ParseEventHandler() {
+			@Override
+			public void enterBlock(BlockNode block) {
+				events.add("+" + block.getClass().getSimpleName());
+			}
+			
+			@Override
+			public void exitBlock(BlockNode block) {
+				events.add("-" + block.getClass().getSimpleName());
+			}
+			
+			@Override
+			public void enterInline(InlineNode inline) {
+				events.add("+" + inline.getClass().getSimpleName());
+			}
+			
+			@Override
+			public void exitInline(InlineNode inline) {
+				events.add("-" + inline.getClass().getSimpleName());
+			}
+		});
+		assertThat(events, is(equalTo(asList(
+			"+DocumentNode", "+ListBlockNode", "+ItemBlockNode", "+ParagraphBlockNode",
+			"+InlineEmphasisNode", "+InlineTextNode", "-InlineTextNode", "-InlineEmphasisNode",
+			"-ParagraphBlockNode", "-ItemBlockNode", "-ListBlockNode", "-DocumentNode"))));
+	}
+	
+	@Test
+	public void shouldBeReleasedTopLevelBlocks() {
+		LinkCollector collector = new LinkCollector();
+		Parser.getInstance().parse(paragraphs(1000, "text"), collector);
+		assertThat(collector.maxTopLevelBlocks, is(equalTo(1)));
+	}
+	
+	@Test
+	public void shouldBeDeferredBlocksWhichMayUseForwardReference() {
+		LinkCollector collector = new LinkCollector();
+		Parser.getInstance().parse("[a]\n\n" + paragraphs(100, "text") + "[a]: /a\n", collector);
+		assertThat(collector.links, is(equalTo(asList("/a"))));
+		assertThat(collector.maxTopLevelBlocks, is(equalTo(101)));
+	}
+	
+	@Test
+	public void shouldBeResolvedOnlyBackwardReferencesWithoutForwardReferences() {
+		Parser parser = Parser.getInstance();
+		parser.forwardReferences(false);
+		LinkCollector collector = new LinkCollector();
+		parser.parse("[a]\n\n[b]: /b\n\n" + paragraphs(100, "[b]"), collector);
+		assertThat(collector.links.size(), is(equalTo(100)));
+		assertThat(collector.maxTopLevelBlocks, is(equalTo(1)));
+	}
+	
+	@Test
+	public void shouldBeSameOutputAsRenderedTree() {
+		String input = "# h\n\n- a\n- b\n\n  c\n\n> [x][]\n\n[x]: /u \"t\"\n\n    code\n";
+		HtmlRenderer renderer = HtmlRenderer.builder().sourcepos(true).build();
+		StringBuilder sb = new StringBuilder();
+		Parser.getInstance().parse(input, renderer.sink(sb));
+		assertThat(sb.toString(), is(equalTo(renderer.render(Parser.getInstance().parse(input)))));
+	}
+	
+	@Test
+	public void shouldBeSameOutputAfterListLeftByDefinition() {
+		HtmlRenderer renderer = new HtmlRenderer();
+		for (String input : LIST_LEFT_BY_DEFINITION) {
+			StringBuilder sb = new StringBuilder();
+			Parser.getInstance().parse(input, renderer.sink(sb));
+			assertThat(input, sb.toString(), is(equalTo(renderer.render(Parser.getInstance().parse(input)))));
+		}
+	}
+	
+	private static List<String> pushedEvents(String input) {
+		List<String> pushed = new ArrayList<>();
+		Parser.getInstance().parse(input, new ParseEventHandler() {
+			@Override
+			public void enterBlock(BlockNode block) {
+				pushed.add("ENTER_BLOCK " + block.getClass().getSimpleName());
+			}
+			
+			@Override
+			public void exitBlock(BlockNode block) {
+				pushed.add("EXIT_BLOCK " + block.getClass().getSimpleName());
+			}
+			
+			@Override
+			public void enterInline(InlineNode inline) {
+				pushed.add("ENTER_INLINE " + inline.getClass().getSimpleName());
+			}
+			
+			@Override
+			public void exitInline(InlineNode inline) {
+				pushed.add("EXIT_INLINE " + inline.getClass().getSimpleName());
+			}
+		});
+		return pushed;
+	}
+	
+	private static List<String> pulledEvents(String input) {
+		List<String> pulled = new ArrayList<>();
+		Parser.getInstance().events(input).forEachRemaining(event -> pulled.add(event.toString()));
+		return pulled;
+	}
+	
+	@Test
+	public void shouldBePulledSameEventsAsPushed() {
+		String input = "# h\n\n- a\n- *b* [c]\n\n[c]: /c\n";
+		assertThat(pulledEvents(input), is(equalTo(pushedEvents(input))));
+	}
+	
+	@Test
+	public void shouldBePulledEventsAfterListLeftByDefinition() {
+		for (String input : LIST_LEFT_BY_DEFINITION)
+			assertThat(input, pulledEvents(input), is(equalTo(pushedEvents(input))));
+	}
+	
+	@Test
+	public void shouldBeReadInputOnDemand() {
+		String input = paragraphs(1000, "text");
+		CountingReader reader = new CountingReader(input);
+		Iterator<ParseEvent> events = Parser.getInstance().events(reader);
+		int count = 0;
+		while (count < 10 && events.hasNext()) {
+			events.next();
+			count++;
+		}
+		assertThat(count, is(equalTo(10)));
+		assertTrue(reader.read < input.length() / 10);
+	}
+	
+	@Test
+	public void shouldBeLinkedNodeUntilNextEventIsPulled() {
+		Iterator<ParseEvent> events = Parser.getInstance().events("a\n\nb\n");
+		while (events.hasNext()) {
+			ParseEvent event = events.next();
+			if (event.type() == ParseEvent.Type.EXIT_BLOCK &&
+				event.node() instanceof ParagraphBlockNode)
+				assertThat(event.node().parent(), is(instanceOf(DocumentNode.class)));
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class ParserPoolUnitTest {
+
+	private static final String INPUT = "[foo]: /url \"title\"\n\n# [foo]\n\n- *a*\n- b\n";
+	private static final String OUTPUT =
+		"<h1><a href=\"/url\" title=\"title\">foo</a></h1>\n<ul>\n<li><em>a</em></li>\n<li>b</li>\n</ul>\n";
+	
+	private static HtmlRenderer renderer = new HtmlRenderer();
+
+	@Test
+	public void shouldBeReusedParser() {
+		ParserPool pool = new ParserPool(1);
+		Parser parser = pool.acquire();
+		pool.release(parser);
+		assertThat(pool.idle(), is(equalTo(1)));
+		assertThat(pool.acquire(), is(sameInstance(parser)));
+		assertThat(pool.idle(), is(equalTo(0)));
+	}
+
+	@Test
+	public void shouldBeLimitedIdleParsers() {
+		ParserPool pool = new ParserPool(1);
+		Parser first = pool.acquire();
+		Parser second = pool.acquire();
+		pool.release(first);
+		pool.release(second);
+		assertThat(pool.idle(), is(equalTo(1)));
+	}
+
+	@Test
+	public void shouldBeClearedReferenceMapAfterRelease() {
+		InlineParser ip = new InlineParserImpl(new CharReaderImpl());
+		ParserPool pool = new ParserPool(1, () -> new Parser(ip));
+		assertThat(renderer.render(pool.parse(INPUT)), is(equalTo(OUTPUT)));
+		assertThat(ip.refmap().isEmpty(), is(true));
+		assertThat(renderer.render(pool.parse("[foo]\n")), is(equalTo("<p>[foo]</p>\n")));
+	}
+
+	@Test
+	public void shouldBeSameOutputFromConcurrentThreads() throws Exception {
+		ParserPool pool = new ParserPool(4);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 400; i++)
+				results.add(executor.submit(() -> renderer.render(pool.parse(INPUT))));
+			for (Future<String> result : results)
+				assertThat(result.get(), is(equalTo(OUTPUT)));
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
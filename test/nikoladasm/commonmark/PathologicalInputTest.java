@@ -0,0 +1,123 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class PathologicalInputTest {
+
+	private static final int N = 30000;
+
+	@Parameters(name = "{index}: {0}")
+	public static Collection<Object[]> data() throws Exception {
+		return Arrays.asList(new Object[][] {
+			{"nested strong emph",
+				"*a **a ".repeat(N) + "b" + " a** a*".repeat(N),
+				p("<em>a <strong>a ".repeat(N) + "b" + " a</strong> a</em>".repeat(N))},
+			{"many emph closers with no openers",
+				"a_ ".repeat(N), p("a_ ".repeat(N))},
+			{"many emph openers with no closers",
+				"_a ".repeat(N), p("_a ".repeat(N))},
+			{"many link closers with no openers",
+				"a]".repeat(N), p("a]".repeat(N))},
+			{"many link openers with no closers",
+				"[a".repeat(N), p("[a".repeat(N))},
+			{"mismatched openers and closers",
+				"*a_ ".repeat(N), p("*a_ ".repeat(N))},
+			{"openers and closers multiple of 3",
+				"a**b" + "c* ".repeat(N),
+				p("a<em><em>bc</em> c</em> " + "c* ".repeat(N-2))},
+			{"link openers and emph closers",
+				"[ a_".repeat(N), p("[ a_".repeat(N))},
+			{"emph openers before link closers",
+				"*a".repeat(N) + "]".repeat(N),
+				p("<em>a</em>a".repeat(N/2) + "]".repeat(N))},
+			{"pattern [ (]( repeated",
+				"[ (](".repeat(N), p("[ (](".repeat(N))},
+			{"nested brackets",
+				"[".repeat(N) + "a" + "]".repeat(N),
+				p("[".repeat(N) + "a" + "]".repeat(N))},
+			{"nested images",
+				"![".repeat(N) + "a" + "]".repeat(N),
+				p("![".repeat(N) + "a" + "]".repeat(N))},
+			{"nested block quotes",
+				"> ".repeat(N) + "a",
+				"<blockquote>\n".repeat(N) + "<p>a</p>\n" + "</blockquote>\n".repeat(N)},
+			{"backticks",
+				backticks(N / 30), p(backticks(N / 30))},
+			{"unclosed links A",
+				"[a](<b".repeat(N), p("[a](&lt;b".repeat(N))},
+			{"unclosed links B",
+				"[a](b".repeat(N), p("[a](b".repeat(N))},
+			{"unclosed link titles",
+				"[a](b \"".repeat(N), p("[a](b &quot;".repeat(N))},
+			{"unclosed comments",
+				"a " + "<!--".repeat(N), p("a " + "&lt;!--".repeat(N))},
+			{"unclosed processing instructions",
+				"a " + "<?".repeat(N), p("a " + "&lt;?".repeat(N))},
+			{"unclosed declarations",
+				"a " + "<!A ".repeat(N), p("a " + "&lt;!A ".repeat(N))},
+			{"unclosed CDATA",
+				"a " + "<![CDATA[".repeat(N), p("a " + "&lt;![CDATA[".repeat(N))},
+			{"unclosed open tag starting a line",
+				"<a href=\"" + "x".repeat(N), p("&lt;a href=&quot;" + "x".repeat(N))},
+		});
+	}
+
+	private static String p(String content) {
+		return "<p>" + content.trim() + "</p>\n";
+	}
+
+	private static String backticks(int n) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 1; i <= n; i++) {
+			sb.append('e');
+			for (int j = 0; j < i; j++)
+				sb.append('`');
+		}
+		return sb.toString();
+	}
+
+	@Parameter(0)
+	public String name;
+
+	@Parameter(1)
+	public String input;
+
+	@Parameter(2)
+	public String output;
+
+	@Test(timeout = 10000)
+	public void test() {
+		// runs on the default stack, as neither parsing nor rendering recurses on nesting
+		assertThat(new HtmlRenderer().render(Parser.getInstance().parse(input)), is(equalTo(output)));
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nikoladasm.commonmark;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.StringReader;
+import java.util.Random;
+
+import org.junit.Test;
+
+import nikoladasm.commonmark.nodes.*;
+
+public class PlainTextUnitTest {
+
+	private static final String ALPHABET = "aZ9 ., !?'\"():;/@%é😀 \t\n\r#-+=*_`[]<>&~\\1";
+	
+	private static String normal(HtmlRenderer renderer, String input) {
+		return renderer.render(Parser.getInstance().parse(new StringReader(input)));
+	}
+	
+	@Test
+	public void shouldBePlainProse() {
+		assertThat(PlainText.isPlain("Hi there! Are we still on for 3pm?"), is(true));
+		assertThat(PlainText.isPlain("Sure, \"lunch\" at 12:30.\nSee you (soon)\n\nbye"), is(true));
+		assertThat(PlainText.isPlain("a-b + c = d #1"), is(true));
+		assertThat(PlainText.isPlain("2023 was great"), is(true));
+		assertThat(PlainText.isPlain(""), is(true));
+	}
+	
+	@Test
+	public void shouldNotBePlainWithMarkdownSyntax() {
+		assertThat(PlainText.isPlain("some *emphasis*"), is(false));
+		assertThat(PlainText.isPlain("# heading"), is(false));
+		assertThat(PlainText.isPlain("text\n- item"), is(false));
+		assertThat(PlainText.isPlain("1. first"), is(false));
+		assertThat(PlainText.isPlain("    code"), is(false));
+		assertThat(PlainText.isPlain("a & b"), is(false));
+		assertThat(PlainText.isPlain("tab\there"), is(false));
+		assertThat(PlainText.isPlain("title\n==="), is(false));
+	}
+	
+	@Test
+	public void shouldBeSameOutputAsFullPipeline() {
+		HtmlRenderer renderer = new HtmlRenderer();
+		HtmlRenderer sourcepos = HtmlRenderer.builder().sourcepos(true).build();
+		Parser parser = Parser.getInstance();
+		Random random = new Random(1);
+		int plain = 0;
+		for (int n = 0; n < 20000; n++) {
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(40);
+			int alphabet = 10 + random.nextInt(ALPHABET.length()-10);
+			for (int i = 0; i < length; i++)
+				sb.append(ALPHABET.charAt(random.nextInt(alphabet)));
+			String input = sb.toString();
+			if (PlainText.isPlain(input)) plain++;
+			assertThat(input, renderer.render(input, parser), is(equalTo(normal(renderer, input))));
+			assertThat(input, sourcepos.render(parser.parse(input)),
+				is(equalTo(normal(sourcepos, input))));
+		}
+		assertThat(plain > 5000, is(true));
+	}
+	
+	@Test
+	public void shouldBePlainUtf8AsDecodedString() {
+		String[] inputs = {"Hi there! Are we still on for 3pm?", "caf\u00e9 \u4e2d\u6587 \ud83d\ude00",
+			"a\u00a0b", "a\u3000b", "a\u2003b", "a\u0085b", "# heading", "1. first", "    code"};
+		for (String input : inputs)
+			assertThat(input, PlainText.isPlain(new Utf8Bytes(input.getBytes(UTF_8))), is(PlainText.isPlain(input)));
+	}
+	
+	@Test
+	public void shouldNotBePlainWithMalformedUtf8() {
+		byte[][] inputs = {{'a', (byte) 0xC3}, {(byte) 0xC0, (byte) 0x80}, {(byte) 0xE0, (byte) 0x80, (byte) 0xAF},
+			{(byte) 0xED, (byte) 0xA0, (byte) 0x80}, {(byte) 0xE2, (byte) 0x82}, {(byte) 0xF5, (byte) 0x80, (byte) 0x80, (byte) 0x80},
+			{(byte) 0x80}, {(byte) 0xC3, 'a'}};
+		for (byte[] input : inputs)
+			assertThat(PlainText.isPlain(new Utf8Bytes(input)), is(false));
+	}
+	
+	@Test
+	public void shouldBeSameUtf8OutputAsFullPipeline() {
+		String alphabet = ALPHABET + "\u00a0\u3000\u00e9\u4e2d";
+		HtmlRenderer renderer = new HtmlRenderer();
+		Parser parser = Parser.getInstance();
+		Random random = new Random(2);
+		int plain = 0;
+		for (int n = 0; n < 20000; n++) {
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(40);
+			for (int i = 0; i < length; i++)
+				sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			byte[] input = sb.toString().getBytes(UTF_8);
+			if (input.length > 0 && random.nextInt(10) == 0)
+				input[random.nextInt(input.length)] = (byte) (0x80 + random.nextInt(0x80));
+			if (PlainText.isPlain(new Utf8Bytes(input))) plain++;
+			String decoded = new String(input, UTF_8);
+			assertThat(decoded, new String(renderer.render(input, parser), UTF_8),
+				is(equalTo(normal(renderer, decoded))));
+		}
+		assertThat(plain > 1000, is(true));
+	}
+	
+	@Test
+	public void shouldBeUsedSoftbreakAndHardBreaks() {
+		HtmlRenderer renderer = HtmlRenderer.builder().softbreak("<br />\n").build();
+		Parser parser = Parser.getInstance();
+		String input = "  one \ntwo  \n     three  \n\n\r\nfour\r\nfive   ";
+		assertThat(renderer.render(input, parser), is(equalTo(normal(renderer, input))));
+		assertThat(renderer.render(input, parser),
+			is(equalTo("<p>one<br />\ntwo<br />\nthree</p>\n<p>four<br />\nfive</p>\n")));
+		assertThat(renderer.render(input.getBytes(UTF_8), parser),
+			is(equalTo(renderer.render(input, parser).getBytes(UTF_8))));
+	}
+	
+	@Test
+	public void shouldGoThroughOtherInlineParser() {
+		InlineParser ip = new InlineParserImpl(new CharReaderImpl()) {
+			@Override
+			public void parseInline(BlockNode root) {
+				super.parseInline(root);
+				InlineTextNode mark = new InlineTextNode();
+				mark.literal("!");
+				root.appendChild(mark);
+			}
+		};
+		Parser parser = new Parser(ip);
+		HtmlRenderer renderer = new HtmlRenderer();
+		String input = "plain prose";
+		assertThat(PlainText.isPlain(input), is(true));
+		assertThat(renderer.render(parser.parse(input)), is(equalTo("<p>plain prose!</p>\n")));
+		assertThat(renderer.render(input, parser), is(equalTo("<p>plain prose!</p>\n")));
+		assertThat(renderer.render(input.getBytes(UTF_8), parser),
+			is(equalTo("<p>plain prose!</p>\n".getBytes(UTF_8))));
+	}
+}
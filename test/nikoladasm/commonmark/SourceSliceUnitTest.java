@@ -0,0 +1,107 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import nikoladasm.commonmark.nodes.*;
+
+public class SourceSliceUnitTest {
+
+	@Test
+	public void shouldBeViewOfSource() {
+		String source = "abcdef";
+		SourceSlice slice = new SourceSlice(source, 1, 5);
+		assertThat(slice.length(), is(4));
+		assertThat(slice.charAt(0), is('b'));
+		assertThat(slice.toString(), is("bcde"));
+		assertThat(slice.subSequence(1, 3).toString(), is("cd"));
+		assertThat(slice.subSequence(1, 3).start(), is(2));
+		assertThat(slice.subSequence(1, 3).source(), is(sameInstance(source)));
+	}
+	
+	@Test
+	public void shouldJoinAdjacentSlices() {
+		String source = "abcdef";
+		SourceSlice slice = new SourceSlice(source, 0, 2);
+		assertThat(slice.join(new SourceSlice(source, 2, 4)).toString(), is("abcd"));
+		assertThat(slice.join(new SourceSlice(source, 3, 4)), is(nullValue()));
+		assertThat(slice.join(new SourceSlice(new String(source), 2, 4)), is(nullValue()));
+		assertThat(slice.join("cd"), is(nullValue()));
+	}
+	
+	@Test
+	public void shouldCopyMutableSequences() {
+		StringBuilder sb = new StringBuilder("abc");
+		CharSequence retained = SourceSlice.retain(sb);
+		sb.setLength(0);
+		assertThat(retained.toString(), is("abc"));
+		String str = "abc";
+		assertThat(SourceSlice.retain(str), is(sameInstance((CharSequence) str)));
+	}
+	
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void shouldCheckBounds() {
+		new SourceSlice("abc", 0, 2).charAt(2);
+	}
+	
+	@Test
+	public void shouldSliceLiteralsOfStringInput() {
+		Node document = Parser.getInstance().parse("```\ncode\n```\n\nsome `span` text\n\n<div>\nhtml\n</div>\n");
+		CodeBlockNode code = (CodeBlockNode) document.firstChild();
+		assertThat(code.literalSequence(), is(instanceOf(SourceSlice.class)));
+		assertThat(code.literal(), is("code\n"));
+		ParagraphBlockNode paragraph = (ParagraphBlockNode) code.next();
+		InlineTextNode text = (InlineTextNode) paragraph.firstChild();
+		assertThat(text.literalSequence(), is(instanceOf(SourceSlice.class)));
+		assertThat(text.literal(), is("some "));
+		InlineCodeNode span = (InlineCodeNode) text.next();
+		assertThat(span.literalSequence(), is(instanceOf(SourceSlice.class)));
+		assertThat(span.literal(), is("span"));
+		HtmlBlockNode html = (HtmlBlockNode) paragraph.next();
+		assertThat(html.literalSequence(), is(instanceOf(SourceSlice.class)));
+		assertThat(html.literal(), is("<div>\nhtml\n</div>"));
+	}
+	
+	@Test
+	public void shouldCopyLiteralsNotInSource() {
+		Node document = Parser.getInstance().parse("```\r\ncode\r\n```\r\n\r\na &amp; b `x  y`\n");
+		CodeBlockNode code = (CodeBlockNode) document.firstChild();
+		assertThat(code.literalSequence(), is(instanceOf(String.class)));
+		assertThat(code.literal(), is("code\n"));
+		InlineTextNode text = (InlineTextNode) code.next().firstChild();
+		assertThat(text.literal(), is("a & b "));
+		InlineCodeNode span = (InlineCodeNode) text.next();
+		assertThat(span.literal(), is("x y"));
+	}
+	
+	@Test
+	public void shouldRenderAsReaderInput() {
+		String input = "# head\n\n    indented\n\tcode\n\n> quoted `code`\n> *text*\n\n" +
+			"- item\n\n  ```js\n  fenced\n  ```\n\n<!-- comment -->\n\nlast\u0000line";
+		HtmlRenderer renderer = new HtmlRenderer();
+		assertThat(renderer.render(Parser.getInstance().parse(input)),
+			is(renderer.render(Parser.getInstance().parse(new StringReader(input)))));
+	}
+}
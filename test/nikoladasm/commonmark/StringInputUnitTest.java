@@ -0,0 +1,144 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.StringReader;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import nikoladasm.commonmark.nodes.BlockNode;
+
+public class StringInputUnitTest {
+
+	private static final String[] INPUTS = {
+		"",
+		"\n",
+		"\r",
+		"\r\n",
+		"# one\ntwo *three*",
+		"# one\r\ntwo *three*\r\n",
+		"# one\rtwo\r\rthree\r",
+		"mixed\n\r\n\rendings\r\n\n",
+		"    code\r\n\r\n    more\n",
+		"```\r\nfence\r\n```",
+		"> quote\rlazy\n- item\r\n\r\n  para",
+		"a\r\r\n\n\r"
+	};
+	
+	@Test
+	public void shouldSplitLinesAsReader() {
+		HtmlRenderer renderer = HtmlRenderer.builder().sourcepos(true).build();
+		Parser parser = Parser.getInstance();
+		for (String input : INPUTS) {
+			String expected = renderer.render(parser.parse(new StringReader(input)));
+			assertThat(input, renderer.render(parser.parse(input)), is(expected));
+		}
+	}
+	
+	@Test
+	public void shouldDropGrownBuilders() {
+		StringBuilder small = new StringBuilder("abc");
+		assertThat(Parser.reuse(small), is(sameInstance(small)));
+		assertThat(small.length(), is(0));
+		StringBuilder large = new StringBuilder(Parser.MAX_REUSED_CAPACITY+1);
+		assertThat(Parser.reuse(large), is(not(sameInstance(large))));
+	}
+	
+	/* Implements only the methods InlineParser had before the builders were reused. */
+	private static class OldInlineParser implements InlineParser {
+		private final InlineParserImpl ip = new InlineParserImpl(new CharReaderImpl());
+		private int recreated;
+		
+		@Override
+		public void whitespaseCharFunc(Function<Character,Boolean> func) {
+			ip.whitespaseCharFunc(func);
+		}
+		
+		@Override
+		public Map<String,Link> refmap() {
+			return ip.refmap();
+		}
+		
+		@Override
+		public void recreateStringBuilders() {
+			recreated++;
+			ip.resetStringBuilders();
+		}
+		
+		@Override
+		public boolean isWhitespase(char c) {
+			return ip.isWhitespase(c);
+		}
+		
+		@Override
+		public String unescapeString(String str) {
+			return ip.unescapeString(str);
+		}
+		
+		@Override
+		public void parseInline(BlockNode root) {
+			ip.parseInline(root);
+		}
+		
+		@Override
+		public int parseReferences(String input) {
+			return ip.parseReferences(input);
+		}
+		
+		@Override
+		public boolean isOpenTag(String input, int beginPos) {
+			return ip.isOpenTag(input, beginPos);
+		}
+		
+		@Override
+		public boolean isClosingTag(String input, int beginPos) {
+			return ip.isClosingTag(input, beginPos);
+		}
+	}
+	
+	@Test
+	public void shouldResetInlineParserWithOldMethods() {
+		OldInlineParser ip = new OldInlineParser();
+		Parser parser = new Parser(ip);
+		HtmlRenderer renderer = new HtmlRenderer();
+		assertThat(renderer.render(parser.parse("[a]\n\n[a]: /u\n")),
+			is("<p><a href=\"/u\">a</a></p>\n"));
+		parser.reset();
+		assertThat(ip.refmap().isEmpty(), is(true));
+		assertThat(renderer.render(parser.parse("[a] *b*\n")), is("<p>[a] <em>b</em></p>\n"));
+		assertThat(ip.recreated, is(3));
+	}
+	
+	@Test
+	public void shouldParseSmallAfterLargeDocument() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 2000; i++)
+			sb.append("*word* ");
+		Parser parser = Parser.getInstance();
+		HtmlRenderer renderer = new HtmlRenderer();
+		parser.parse(sb.toString());
+		assertThat(renderer.render(parser.parse("# small\n`code`")),
+			is("<h1>small</h1>\n<p><code>code</code></p>\n"));
+	}
+}
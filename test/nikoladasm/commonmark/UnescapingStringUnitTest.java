@@ -51,4 +51,12 @@ public class UnescapingStringUnitTest {
 		String expected = "&><";
 		assertThat(uStr, is(equalTo(expected)));
 	}
+
+	@Test
+	public void shouldBeUnescapingPlainTextRuns() {
+		String str = "plain text \\* more text &amp; tail &#35;\\";
+		String uStr = ip.unescapeString(str);
+		String expected = "plain text * more text & tail #\\";
+		assertThat(uStr, is(equalTo(expected)));
+	}
 }
@@ -43,6 +43,7 @@ public class UrlUtilUnitTest {
 				"http://test.example.com/gif.latex?X_t_1%3DX_t_0%5Ctimes%7Be%5E%7B-%5Clambda%5Ctimes%7Bt%7D%7D%7D"},
 			{"http://test.example.com/2012/12/17/%e7%bb%99vmware%e4%b8%8b%e7%9a%84ubuntu-server%e5%85%b1%e4%ba%ab%e6%96%87%e4%bb%b6/",
 				"http://test.example.com/2012/12/17/%E7%BB%99vmware%E4%B8%8B%E7%9A%84ubuntu-server%E5%85%B1%E4%BA%AB%E6%96%87%E4%BB%B6/"},
+			{"/\u00e9\u20ac\ud83d\ude00\ud800 x", "/%C3%A9%E2%82%AC%F0%9F%98%80%3F%20x"},
 		});
 	}
 
@@ -0,0 +1,146 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+
+import org.junit.Test;
+
+import nikoladasm.commonmark.nodes.Node;
+
+public class Utf8ChannelOutputUnitTest {
+
+	private static final String ALPHABET = "ab <>&\"\n*_`[]()é€ж字😀𐀀\uDFFF#-";
+	
+	/* Takes at most three bytes per write, like a busy socket would. */
+	private static class SlowChannel implements WritableByteChannel {
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		
+		@Override
+		public int write(ByteBuffer src) {
+			int n = Math.min(3, src.remaining());
+			for (int i = 0; i < n; i++)
+				out.write(src.get());
+			return n;
+		}
+		
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+		
+		@Override
+		public void close() {}
+	}
+	
+	private static String random(Random random) {
+		StringBuilder sb = new StringBuilder();
+		int length = random.nextInt(200);
+		for (int i = 0; i < length; i++)
+			sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		return sb.toString();
+	}
+	
+	@Test
+	public void shouldBeSameBytesAsRenderedString() {
+		HtmlRenderer renderer = new HtmlRenderer();
+		Parser parser = Parser.getInstance();
+		Random random = new Random(1);
+		ByteBuffer[] buffers = {ByteBuffer.allocate(4), ByteBuffer.allocate(7),
+			ByteBuffer.allocateDirect(64), ByteBuffer.allocateDirect(1 << 16)};
+		for (int n = 0; n < 2000; n++) {
+			String input = random(random);
+			Node ast = parser.parse(input);
+			byte[] expected = renderer.render(ast).getBytes(UTF_8);
+			for (ByteBuffer buffer : buffers) {
+				SlowChannel channel = new SlowChannel();
+				renderer.render(ast, channel, buffer);
+				assertThat(input, channel.out.toByteArray(), is(equalTo(expected)));
+			}
+		}
+	}
+	
+	@Test
+	public void shouldBeSameBytesFromSink() {
+		HtmlRenderer renderer = new HtmlRenderer();
+		Parser parser = Parser.getInstance();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+		Random random = new Random(2);
+		for (int n = 0; n < 500; n++) {
+			String input = random(random);
+			SlowChannel channel = new SlowChannel();
+			parser.parse(input, renderer.sink(channel, buffer));
+			assertThat(input, channel.out.toByteArray(),
+				is(equalTo(renderer.render(parser.parse(input)).getBytes(UTF_8))));
+		}
+	}
+	
+	@Test
+	public void shouldEncodeSurrogates() throws Exception {
+		String[] inputs = {"😀", "a\uD800", "\uD800b", "\uDC00", "\uD800𐀀", "é😀€"};
+		for (String input : inputs) {
+			SlowChannel channel = new SlowChannel();
+			Utf8ChannelOutput out = new Utf8ChannelOutput(channel, ByteBuffer.allocate(4));
+			for (int i = 0; i < input.length(); i++)
+				out.append(input.charAt(i));
+			out.finish();
+			assertThat(input, channel.out.toByteArray(), is(equalTo(input.getBytes(UTF_8))));
+		}
+	}
+	
+	@Test
+	public void shouldEncodeAcrossChunks() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < 10000)
+			sb.append("ab😀é字");
+		for (int offset = 0; offset < 3; offset++) {
+			String input = sb.substring(offset);
+			SlowChannel channel = new SlowChannel();
+			Utf8ChannelOutput out = new Utf8ChannelOutput(channel, ByteBuffer.allocateDirect(100));
+			out.append(input);
+			out.finish();
+			assertThat(channel.out.toByteArray(), is(equalTo(input.getBytes(UTF_8))));
+		}
+	}
+	
+	@Test
+	public void shouldCopyUtf8BytesAsTheyAre() throws Exception {
+		byte[] bytes = "a\"é😀\"b".getBytes(UTF_8);
+		Utf8Bytes utf8 = new Utf8Bytes(bytes, 1, bytes.length - 1);
+		SlowChannel channel = new SlowChannel();
+		Utf8ChannelOutput out = new Utf8ChannelOutput(channel, ByteBuffer.allocate(4));
+		out.append("<").append(utf8).append('\uD83D').append(utf8, 1, utf8.length() - 1).append(">");
+		out.finish();
+		assertThat(channel.out.toByteArray(), is(equalTo("<\"é😀\"?é😀>".getBytes(UTF_8))));
+		assertThat(utf8.toString(), is(equalTo("\"é😀\"")));
+		assertThat(utf8.subSequence(1, 3).toString(), is(equalTo("é")));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldNotAcceptTooSmallBuffer() {
+		new Utf8ChannelOutput(new SlowChannel(), ByteBuffer.allocate(3));
+	}
+}
@@ -36,7 +36,8 @@ import org.junit.runners.Suite;
 		FencedCodeBlockUnitTest.class,
 		HtmlBlockUnitTest.class,
 		BlockQuoteUnitTest.class,
-		ListUnitTest.class}
+		ListUnitTest.class,
+		LargeBlockScalingUnitTest.class}
 )
 
 @RunWith(Suite.class)
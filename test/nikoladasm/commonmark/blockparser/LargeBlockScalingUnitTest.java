@@ -0,0 +1,142 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.blockparser;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import nikoladasm.commonmark.CharReaderImpl;
+import nikoladasm.commonmark.InlineParserImpl;
+import nikoladasm.commonmark.Parser;
+import nikoladasm.commonmark.nodes.*;
+
+public class LargeBlockScalingUnitTest {
+
+	private static final String CODE_LINE = "int x = 33; // some code\n";
+	private static final String HTML_LINE = "<p>some html</p>\n";
+
+	private static Parser p = new Parser(new InlineParserImpl(new CharReaderImpl()));
+
+	private static String fencedCodeBlock(int lines) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("```\n");
+		for (int i = 0; i < lines; i++)
+			sb.append(CODE_LINE);
+		sb.append("```\n");
+		return sb.toString();
+	}
+
+	private static String htmlBlock(int lines) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("<div>\n");
+		for (int i = 0; i < lines; i++)
+			sb.append(HTML_LINE);
+		sb.append("</div>\n");
+		return sb.toString();
+	}
+
+	private static String referenceDefinitionParagraphs(int count) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++)
+			sb.append("text ").append(i).append("\n\n[ref").append(i)
+				.append("]: /url").append(i).append("\n\n");
+		return sb.toString();
+	}
+
+	private static String setextHeadings(int count) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++)
+			sb.append("heading ").append(i).append("\n---\n\n");
+		return sb.toString();
+	}
+
+	private static double growth(String small, String large) {
+		parseTime(small);
+		long smallTime = parseTime(small);
+		long largeTime = parseTime(large);
+		return (double) largeTime / smallTime;
+	}
+
+	private static long parseTime(String input) {
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < 3; i++) {
+			long begin = System.nanoTime();
+			p.parse(input);
+			long time = System.nanoTime() - begin;
+			if (time < best) best = time;
+		}
+		return best;
+	}
+
+	@Test(timeout = 30000)
+	public void shouldParseLargeFencedCodeBlock() {
+		int lines = 200000;
+		Node node = p.parse(fencedCodeBlock(lines));
+		Node first = node.childs().peekFirst();
+		assertThat(first, instanceOf(CodeBlockNode.class));
+		assertThat(((CodeBlockNode) first).literal().length(),
+			is(equalTo(lines * CODE_LINE.length())));
+	}
+
+	@Test(timeout = 30000)
+	public void shouldParseLargeHtmlBlock() {
+		int lines = 200000;
+		Node node = p.parse(htmlBlock(lines));
+		Node first = node.childs().peekFirst();
+		assertThat(first, instanceOf(HtmlBlockNode.class));
+		assertThat(((HtmlBlockNode) first).literal().length(),
+			is(equalTo(6 + lines * HTML_LINE.length() + 6)));
+	}
+
+	@Test(timeout = 60000)
+	public void parseTimeShouldGrowLinearlyWithCodeBlockLength() {
+		String small = fencedCodeBlock(25000);
+		String large = fencedCodeBlock(200000);
+		parseTime(small);
+		long smallTime = parseTime(small);
+		long largeTime = parseTime(large);
+		double ratio = (double) largeTime / smallTime;
+		assertTrue("8x longer block took " + ratio + "x longer to parse", ratio < 32);
+	}
+
+	@Test(timeout = 60000)
+	public void parseTimeShouldGrowLinearlyWithReferenceDefinitionParagraphs() {
+		Node node = p.parse(referenceDefinitionParagraphs(3));
+		int count = 0;
+		for (Node child = node.firstChild(); child != null; child = child.next())
+			count++;
+		assertThat(count, is(equalTo(3)));
+		double ratio = growth(referenceDefinitionParagraphs(5000),
+			referenceDefinitionParagraphs(40000));
+		assertTrue("8x more definitions took " + ratio + "x longer to parse", ratio < 32);
+	}
+
+	@Test(timeout = 60000)
+	public void parseTimeShouldGrowLinearlyWithSetextHeadings() {
+		Node node = p.parse(setextHeadings(2));
+		assertThat(node.firstChild(), instanceOf(HeadingBlockNode.class));
+		assertThat(node.lastChild(), instanceOf(HeadingBlockNode.class));
+		double ratio = growth(setextHeadings(5000), setextHeadings(40000));
+		assertTrue("8x more headings took " + ratio + "x longer to parse", ratio < 32);
+	}
+}
@@ -54,7 +54,8 @@ import nikoladasm.commonmark.UnescapingStringUnitTest;
 		InlineStrongEmphasisUnitTest.class,
 		InlineLineBreakUnitTest.class,
 		InlineSoftBreakUnitTest.class,
-		InlineTextUnitTest.class}
+		InlineTextUnitTest.class,
+		LargeParagraphScalingUnitTest.class}
 )
 
 @RunWith(Suite.class)
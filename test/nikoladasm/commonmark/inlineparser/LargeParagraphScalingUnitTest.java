@@ -0,0 +1,82 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.inlineparser;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import nikoladasm.commonmark.CharReaderImpl;
+import nikoladasm.commonmark.InlineParser;
+import nikoladasm.commonmark.InlineParserImpl;
+import nikoladasm.commonmark.nodes.BaseBlockNode;
+import nikoladasm.commonmark.nodes.BlockNode;
+import nikoladasm.commonmark.nodes.InlineTextNode;
+import nikoladasm.commonmark.nodes.Node;
+
+@RunWith(Parameterized.class)
+public class LargeParagraphScalingUnitTest {
+
+	private static final int PARAGRAPH_SIZE = 1024 * 1024;
+
+	private static InlineParser ip = new InlineParserImpl(new CharReaderImpl());
+	private BlockNode dummyBlockNode = new BaseBlockNode(0, 0) {};
+
+	@Parameters(name = "{index}: {0}")
+	public static Collection<Object[]> data() throws Exception {
+		return Arrays.asList(new Object[][] {
+			{"a < b "},
+			{"a [ b "},
+			{"a ![ b "},
+			{"a <b c=d e "},
+			{"a [b] c "},
+		});
+	}
+
+	@Parameter(0)
+	public String unit;
+
+	private String paragraph() {
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < PARAGRAPH_SIZE)
+			sb.append(unit);
+		return sb.toString().trim();
+	}
+
+	@Test(timeout = 30000)
+	public void test() {
+		String input = paragraph();
+		dummyBlockNode.stringContent(input);
+		ip.parseInline(dummyBlockNode);
+		assertThat(dummyBlockNode.childs().size(), is(equalTo(1)));
+		Node first = dummyBlockNode.childs().removeFirst();
+		assertThat(first, instanceOf(InlineTextNode.class));
+		assertThat(((InlineTextNode) first).literal(), is(equalTo(input)));
+	}
+}
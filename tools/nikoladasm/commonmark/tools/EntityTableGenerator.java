@@ -0,0 +1,184 @@
+/*
+ *  Commonmark Lib
+ *  Copyright (C) 2016  Nikolay Platov
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nikoladasm.commonmark.tools;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+public class EntityTableGenerator {
+
+	private static final int LINE_LENGTH = 64;
+
+	private static String decode(String codePoints) {
+		StringBuilder sb = new StringBuilder();
+		for (String num : codePoints.split(",")) {
+			if (num.trim().isEmpty()) continue;
+			sb.appendCodePoint(Integer.valueOf(num.trim()));
+		}
+		return sb.toString();
+	}
+
+	private static void appendJavaChar(StringBuilder sb, char c) {
+		if (c == '"' || c == '\\')
+			sb.append('\\').append(c);
+		else if (c >= ' ' && c < 127)
+			sb.append(c);
+		else if (c < 128)
+			sb.append(String.format("\\%03o", (int) c));
+		else
+			sb.append(String.format("\\u%04x", (int) c));
+	}
+
+	private static void appendStringConstant(StringBuilder out, String name, String value) {
+		out.append("\tprivate static final String ").append(name).append(" =\n");
+		StringBuilder line = new StringBuilder();
+		int count = 0;
+		for (int i = 0; i < value.length(); i++) {
+			appendJavaChar(line, value.charAt(i));
+			count++;
+			if (count >= LINE_LENGTH || i == value.length()-1) {
+				out.append("\t\t\"").append(line).append('"');
+				out.append(i == value.length()-1 ? ";\n" : " +\n");
+				line.setLength(0);
+				count = 0;
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: EntityTableGenerator <entities file> <output java file>");
+			System.exit(1);
+		}
+		Properties entities = new Properties();
+		try (InputStream is = Files.newInputStream(Paths.get(args[0]))) {
+			entities.load(is);
+		}
+		Map<String,String> table = new TreeMap<>();
+		for (String key : entities.stringPropertyNames()) {
+			if (!key.startsWith("&") || !key.endsWith(";")) continue;
+			table.put(key.substring(1, key.length()-1), decode(entities.getProperty(key)));
+		}
+		StringBuilder names = new StringBuilder();
+		StringBuilder values = new StringBuilder();
+		for (Map.Entry<String,String> entry : table.entrySet()) {
+			names.append(entry.getKey()).append(';');
+			values.append((char) ('0' + entry.getValue().length()));
+			values.append(entry.getValue());
+		}
+		int slots = Integer.highestOneBit(table.size()) * 4;
+		StringBuilder out = new StringBuilder();
+		out.append("/*\n");
+		out.append(" *  Commonmark Lib\n");
+		out.append(" *  Copyright (C) 2016  Nikolay Platov\n");
+		out.append(" *\n");
+		out.append(" *  This program is free software: you can redistribute it and/or modify\n");
+		out.append(" *  it under the terms of the GNU Lesser General Public License as published by\n");
+		out.append(" *  the Free Software Foundation, either version 3 of the License, or\n");
+		out.append(" *  (at your option) any later version.\n");
+		out.append(" *\n");
+		out.append(" *  This program is distributed in the hope that it will be useful,\n");
+		out.append(" *  but WITHOUT ANY WARRANTY; without even the implied warranty of\n");
+		out.append(" *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the\n");
+		out.append(" *  GNU Lesser General Public License for more details.\n");
+		out.append(" *\n");
+		out.append(" *  You should have received a copy of the GNU Lesser General Public License\n");
+		out.append(" *  along with this program.  If not, see <http://www.gnu.org/licenses/>.\n");
+		out.append(" */\n\n");
+		out.append("package nikoladasm.commonmark;\n\n");
+		out.append("/*\n");
+		out.append(" * Generated from resources/entities.properies by 'ant generate-entities'.\n");
+		out.append(" * Do not edit.\n");
+		out.append(" */\n");
+		out.append("final class EntityTable {\n\n");
+		out.append("\tprivate static final int SIZE = ").append(table.size()).append(";\n\n");
+		appendStringConstant(out, "NAMES", names.toString());
+		out.append('\n');
+		appendStringConstant(out, "VALUES", values.toString());
+		out.append('\n');
+		out.append("\tprivate static final int SLOT_MASK = ").append(slots-1).append(";\n\n");
+		out.append("\tprivate static final char[] NAME_CHARS;\n");
+		out.append("\tprivate static final int[] NAME_OFFSETS;\n");
+		out.append("\tprivate static final char[][] ENTITY_VALUES;\n");
+		out.append("\tprivate static final int[] SLOTS;\n\n");
+		out.append("\t// Only locals are touched in the loop, static field access is slow\n");
+		out.append("\t// while the class is still being initialized.\n");
+		out.append("\tstatic {\n");
+		out.append("\t\tchar[] names = NAMES.toCharArray();\n");
+		out.append("\t\tchar[] values = VALUES.toCharArray();\n");
+		out.append("\t\tint[] nameOffsets = new int[SIZE+1];\n");
+		out.append("\t\tchar[][] entityValues = new char[SIZE][];\n");
+		out.append("\t\tint[] slots = new int[SLOT_MASK+1];\n");
+		out.append("\t\tint entity = 0;\n");
+		out.append("\t\tint valuePos = 0;\n");
+		out.append("\t\tint h = 0;\n");
+		out.append("\t\tfor (int i = 0; i < names.length; i++) {\n");
+		out.append("\t\t\tif (names[i] != ';') {\n");
+		out.append("\t\t\t\th = 31*h + names[i];\n");
+		out.append("\t\t\t\tcontinue;\n");
+		out.append("\t\t\t}\n");
+		out.append("\t\t\tint slot = (h ^ (h >>> 16)) * 0x9E3779B9 >>> 16 & SLOT_MASK;\n");
+		out.append("\t\t\twhile (slots[slot] != 0) slot = (slot+1) & SLOT_MASK;\n");
+		out.append("\t\t\tslots[slot] = entity+1;\n");
+		out.append("\t\t\tint length = values[valuePos] - '0';\n");
+		out.append("\t\t\tentityValues[entity] = new char[length];\n");
+		out.append("\t\t\tSystem.arraycopy(values, valuePos+1, entityValues[entity], 0, length);\n");
+		out.append("\t\t\tvaluePos += length+1;\n");
+		out.append("\t\t\tnameOffsets[++entity] = i+1;\n");
+		out.append("\t\t\th = 0;\n");
+		out.append("\t\t}\n");
+		out.append("\t\tNAME_CHARS = names;\n");
+		out.append("\t\tNAME_OFFSETS = nameOffsets;\n");
+		out.append("\t\tENTITY_VALUES = entityValues;\n");
+		out.append("\t\tSLOTS = slots;\n");
+		out.append("\t}\n\n");
+		out.append("\tprivate EntityTable() {}\n\n");
+		out.append("\tprivate static boolean matches(int entity, String str, int begin, int end) {\n");
+		out.append("\t\tint namePos = NAME_OFFSETS[entity];\n");
+		out.append("\t\tif (NAME_OFFSETS[entity+1]-1-namePos != end-begin) return false;\n");
+		out.append("\t\tfor (; begin < end; namePos++, begin++)\n");
+		out.append("\t\t\tif (NAME_CHARS[namePos] != str.charAt(begin)) return false;\n");
+		out.append("\t\treturn true;\n");
+		out.append("\t}\n\n");
+		out.append("\tstatic char[] lookup(String str, int begin, int end) {\n");
+		out.append("\t\tint h = 0;\n");
+		out.append("\t\tfor (int i = begin; i < end; i++)\n");
+		out.append("\t\t\th = 31*h + str.charAt(i);\n");
+		out.append("\t\tint slot = (h ^ (h >>> 16)) * 0x9E3779B9 >>> 16 & SLOT_MASK;\n");
+		out.append("\t\tint entity;\n");
+		out.append("\t\twhile ((entity = SLOTS[slot]) != 0) {\n");
+		out.append("\t\t\tif (matches(entity-1, str, begin, end)) return ENTITY_VALUES[entity-1];\n");
+		out.append("\t\t\tslot = (slot+1) & SLOT_MASK;\n");
+		out.append("\t\t}\n");
+		out.append("\t\treturn null;\n");
+		out.append("\t}\n");
+		out.append("}\n");
+		try (Writer writer = Files.newBufferedWriter(Paths.get(args[1]), UTF_8)) {
+			writer.write(out.toString());
+		}
+	}
+}